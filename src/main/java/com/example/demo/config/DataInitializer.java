@@ -72,6 +72,11 @@ public class DataInitializer implements CommandLineRunner {
                     .registrationOpen(true)
                     .build();
 
+            // Счетчики участников задаются сразу: после вставки они меняются только атомарными UPDATE
+            javaConference.incrementParticipants();
+            javaConference.incrementParticipants();
+            springWorkshop.incrementParticipants();
+
             eventRepository.saveAll(List.of(javaConference, springWorkshop, microservicesConference));
             log.info("Created {} events", eventRepository.count());
 
@@ -235,6 +240,10 @@ public class DataInitializer implements CommandLineRunner {
             session5.setEvent(springWorkshop);
             session5.setSpeaker(speaker1);
 
+            session1.incrementParticipants();
+            session2.incrementParticipants();
+            session5.incrementParticipants();
+
             sessionRepository.saveAll(List.of(session1, session2, session3, session4, session5));
             log.info("Created {} sessions", sessionRepository.count());
 
@@ -262,19 +271,6 @@ public class DataInitializer implements CommandLineRunner {
             registration3.setStatus(Registration.RegistrationStatus.CONFIRMED);
             registration3.setRegistrationDate(LocalDateTime.now());
 
-            // Обновляем счетчики участников
-            javaConference.incrementParticipants();
-            javaConference.incrementParticipants();
-            springWorkshop.incrementParticipants();
-
-            session1.incrementParticipants();
-            session2.incrementParticipants();
-            session5.incrementParticipants();
-
-            // Сохраняем обновленные события и сессии
-            eventRepository.saveAll(List.of(javaConference, springWorkshop));
-            sessionRepository.saveAll(List.of(session1, session2, session5));
-
             registrationRepository.saveAll(List.of(registration1, registration2, registration3));
             log.info("Created {} registrations", registrationRepository.count());
 
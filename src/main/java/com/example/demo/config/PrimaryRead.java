@@ -0,0 +1,18 @@
+package com.example.demo.config;
+
+import org.springframework.transaction.annotation.Transactional;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+// Чтение, которое должно видеть последние записи (in-memory счетчики, очереди, индексы).
+// Выполняется в read-write транзакции, поэтому соединение берется у primary, а не у реплики.
+@Target({ElementType.METHOD, ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+@Transactional
+public @interface PrimaryRead {
+}
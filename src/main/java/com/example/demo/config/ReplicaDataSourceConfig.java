@@ -0,0 +1,56 @@
+package com.example.demo.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.List;
+
+// Реплики для чтения включаются свойством conference.datasource.replica-urls.
+// Транзакции @Transactional(readOnly = true) читают с реплик, остальные работают с primary.
+@Configuration
+@ConditionalOnProperty(name = "conference.datasource.replica-urls")
+public class ReplicaDataSourceConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean(destroyMethod = "close")
+    public ReplicaRoutingDataSource replicaDataSource(
+            DataSourceProperties properties,
+            HikariDataSource primaryDataSource,
+            MeterRegistry meterRegistry,
+            @Value("${conference.datasource.replica-urls}") List<String> urls,
+            @Value("${conference.datasource.replica-username:}") String username,
+            @Value("${conference.datasource.replica-password:}") String password,
+            @Value("${conference.datasource.replica-pool-size:10}") int poolSize,
+            @Value("${conference.datasource.max-replica-lag:5s}") Duration maxLag,
+            @Value("${conference.datasource.replica-lag-query:}") String lagQuery) {
+        return new ReplicaRoutingDataSource(primaryDataSource, urls,
+                username.isEmpty() ? properties.determineUsername() : username,
+                username.isEmpty() ? properties.determinePassword() : password,
+                poolSize, maxLag, lagQuery, meterRegistry);
+    }
+
+    // Реальное соединение берется при первом запросе, когда флаг readOnly транзакции уже
+    // выставлен: read-only соединения выдает replicaDataSource, остальные - primary
+    @Bean
+    @Primary
+    public DataSource dataSource(HikariDataSource primaryDataSource, ReplicaRoutingDataSource replicaDataSource) {
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(primaryDataSource);
+        dataSource.setReadOnlyDataSource(replicaDataSource);
+        return dataSource;
+    }
+}
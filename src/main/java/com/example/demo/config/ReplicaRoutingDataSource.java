@@ -0,0 +1,155 @@
+package com.example.demo.config;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Соединения для read-only транзакций: реплики по кругу. Недоступные и отстающие больше
+// допустимого реплики пропускаются до следующей проверки; если подходящих нет - primary.
+@Slf4j
+public class ReplicaRoutingDataSource extends AbstractDataSource implements Closeable {
+    // Отставание реплики PostgreSQL в секундах; 0, если все полученные WAL уже применены
+    private static final String POSTGRES_LAG_QUERY = """
+            SELECT CASE WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0
+                        ELSE COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()), 0) END
+            """;
+
+    private final DataSource primary;
+    private final List<Replica> replicas = new ArrayList<>();
+    private final double maxLagSeconds;
+    private final String lagQuery;
+    private final AtomicInteger next = new AtomicInteger();
+    private final Counter fallbacks;
+
+    private static final class Replica {
+        private final String name;
+        private final HikariDataSource dataSource;
+        private volatile boolean available;
+        private volatile double lagSeconds;
+        private volatile String lagQuery;
+
+        private Replica(String name, HikariDataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+        }
+    }
+
+    public ReplicaRoutingDataSource(DataSource primary, List<String> urls, String username, String password,
+                                    int poolSize, Duration maxLag, String lagQuery, MeterRegistry meterRegistry) {
+        this.primary = primary;
+        this.maxLagSeconds = maxLag.toMillis() / 1000.0;
+        this.lagQuery = lagQuery == null || lagQuery.isBlank() ? null : lagQuery;
+        this.fallbacks = Counter.builder("conference.datasource.replica.fallback")
+                .description("Read-only соединения, выданные primary из-за отсутствия доступных реплик")
+                .register(meterRegistry);
+
+        for (String url : urls) {
+            String name = "replica-" + (replicas.size() + 1);
+            HikariConfig config = new HikariConfig();
+            config.setPoolName(name);
+            config.setJdbcUrl(url.trim());
+            config.setUsername(username);
+            config.setPassword(password);
+            config.setMaximumPoolSize(poolSize);
+            config.setReadOnly(true);
+            // Недоступная при старте реплика не мешает запуску приложения
+            config.setInitializationFailTimeout(-1);
+            Replica replica = new Replica(name, new HikariDataSource(config));
+            replicas.add(replica);
+
+            Gauge.builder("conference.datasource.replica.available", replica, r -> r.available ? 1 : 0)
+                    .description("Реплика принимает read-only запросы")
+                    .tag("replica", name)
+                    .register(meterRegistry);
+            Gauge.builder("conference.datasource.replica.lag", replica, r -> r.lagSeconds)
+                    .description("Отставание реплики, секунды")
+                    .tag("replica", name)
+                    .register(meterRegistry);
+        }
+        checkReplicas();
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        int size = replicas.size();
+        int start = Math.floorMod(next.getAndIncrement(), size);
+        for (int i = 0; i < size; i++) {
+            Replica replica = replicas.get((start + i) % size);
+            if (!replica.available) {
+                continue;
+            }
+            try {
+                return replica.dataSource.getConnection();
+            } catch (SQLException e) {
+                log.warn("Replica {} is unavailable, excluding it until the next check", replica.name, e);
+                replica.available = false;
+            }
+        }
+        fallbacks.increment();
+        return primary.getConnection();
+    }
+
+    // Пулы реплик открыты с общими учетными данными: соединение с другими выдает primary
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return primary.getConnection(username, password);
+    }
+
+    @Scheduled(fixedDelayString = "${conference.datasource.replica-check-interval-ms:5000}")
+    public void checkReplicas() {
+        replicas.forEach(this::check);
+    }
+
+    private void check(Replica replica) {
+        boolean available;
+        try (Connection connection = replica.dataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            if (replica.lagQuery == null) {
+                replica.lagQuery = lagQuery != null ? lagQuery : defaultLagQuery(connection);
+            }
+            double lag = 0;
+            if (replica.lagQuery != null) {
+                try (ResultSet rs = statement.executeQuery(replica.lagQuery)) {
+                    lag = rs.next() ? rs.getDouble(1) : 0;
+                }
+            }
+            replica.lagSeconds = lag;
+            available = lag <= maxLagSeconds;
+        } catch (SQLException e) {
+            log.debug("Replica {} health check failed", replica.name, e);
+            available = false;
+        }
+
+        if (available != replica.available) {
+            log.info("Replica {} is now {} (lag {}s)", replica.name, available ? "in rotation" : "out of rotation",
+                    replica.lagSeconds);
+        }
+        replica.available = available;
+    }
+
+    private static String defaultLagQuery(Connection connection) throws SQLException {
+        String product = connection.getMetaData().getDatabaseProductName();
+        return "PostgreSQL".equalsIgnoreCase(product) ? POSTGRES_LAG_QUERY : null;
+    }
+
+    @Override
+    public void close() {
+        replicas.forEach(replica -> replica.dataSource.close());
+    }
+}
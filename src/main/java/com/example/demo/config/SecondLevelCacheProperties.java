@@ -0,0 +1,32 @@
+package com.example.demo.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Регионы кэша второго уровня: conference.l2-cache.regions.<регион>.max-size / ttl.
+// Незаданные параметры региона берутся из conference.l2-cache.defaults.
+@Data
+@ConfigurationProperties("conference.l2-cache")
+public class SecondLevelCacheProperties {
+    private Region defaults = new Region(10_000L, Duration.ofMinutes(10));
+    private Map<String, Region> regions = new LinkedHashMap<>();
+
+    @Data
+    public static class Region {
+        private Long maxSize;
+        // Пустое значение - записи не устаревают
+        private Duration ttl;
+
+        public Region() {
+        }
+
+        public Region(Long maxSize, Duration ttl) {
+            this.maxSize = maxSize;
+            this.ttl = ttl;
+        }
+    }
+}
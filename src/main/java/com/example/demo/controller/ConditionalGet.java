@@ -0,0 +1,41 @@
+package com.example.demo.controller;
+
+import org.springframework.http.ETag;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+// Условный GET: если текущий тег (узкий запрос версий) совпадает с If-None-Match,
+// сразу отвечает 304 - ресурс не загружается и не сериализуется. Иначе ресурс
+// загружается, а ETag ответа вычисляется по нему самому (ResourceVersionService)
+final class ConditionalGet {
+
+    private ConditionalGet() {
+    }
+
+    static <T> ResponseEntity<T> respond(String ifNoneMatch, Supplier<Optional<String>> currentTag,
+                                         Supplier<T> loader, Function<T, String> tagOf) {
+        // Без If-None-Match запрос версий не нужен
+        if (ifNoneMatch != null) {
+            Optional<String> tag = currentTag.get();
+            if (tag.isPresent() && matches(ifNoneMatch, tag.get())) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(tag.get()).build();
+            }
+        }
+
+        T body = loader.get();
+        if (body == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok().eTag(tagOf.apply(body)).body(body);
+    }
+
+    private static boolean matches(String ifNoneMatch, String tag) {
+        ETag current = ETag.create(tag);
+        return ETag.parse(ifNoneMatch).stream()
+                .anyMatch(candidate -> candidate.isWildcard() || candidate.compare(current, false));
+    }
+}
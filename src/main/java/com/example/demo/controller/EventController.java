@@ -1,8 +1,16 @@
 package com.example.demo.controller;
 
+import com.example.demo.dto.CursorPage;
+import com.example.demo.dto.EventFilterDTO;
+import com.example.demo.dto.EventSummaryDTO;
 import com.example.demo.model.Event;
+import com.example.demo.service.AgendaSnapshotService;
+import com.example.demo.service.EventMutationDispatcher;
 import com.example.demo.service.EventService;
+import com.example.demo.service.ResourceVersionService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import java.util.List;
@@ -12,15 +20,29 @@ import java.util.List;
 @RequiredArgsConstructor
 public class EventController {
     private final EventService eventService;
+    private final EventMutationDispatcher eventMutationDispatcher;
+    private final ResourceVersionService resourceVersionService;
+    private final AgendaSnapshotService agendaSnapshotService;
 
     @GetMapping
-    public List<Event> getAllEvents() {
-        return eventService.getAllEvents();
+    public CursorPage<EventSummaryDTO> getAllEvents(@RequestParam(required = false) String cursor,
+                                          @RequestParam(required = false) Integer size) {
+        return eventService.getEvents(cursor, size);
+    }
+
+    // Фильтр по параметрам запроса: status, registrationOpen, from/to (дата начала)
+    @GetMapping("/search")
+    public CursorPage<EventSummaryDTO> searchEvents(@ModelAttribute EventFilterDTO filter,
+                                                    @RequestParam(required = false) String cursor,
+                                                    @RequestParam(required = false) Integer size) {
+        return eventService.searchEvents(filter, cursor, size);
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<Event> getEventById(@PathVariable Long id) {
-        return ResponseEntity.ok(eventService.getEventById(id));
+    public ResponseEntity<Event> getEventById(@PathVariable Long id,
+                                              @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return ConditionalGet.respond(ifNoneMatch, () -> resourceVersionService.eventTag(id),
+                () -> eventService.getEventById(id), resourceVersionService::eventTag);
     }
 
     @PostMapping
@@ -50,9 +72,25 @@ public class EventController {
         return eventService.getPublicEvents();
     }
 
+    // Готовый снимок программы (AgendaSnapshotService) отдается без сериализации;
+    // клиенту без поддержки gzip тело распаковывается. If-None-Match обрабатывает Spring по ETag
+    @GetMapping("/{id}/agenda")
+    public ResponseEntity<byte[]> getAgenda(@PathVariable Long id,
+                                            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        AgendaSnapshotService.AgendaSnapshot snapshot = agendaSnapshotService.getSnapshot(id);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .eTag(snapshot.etag())
+                .varyBy(HttpHeaders.ACCEPT_ENCODING);
+        if (acceptEncoding != null && acceptEncoding.contains("gzip")) {
+            return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(snapshot.gzipped());
+        }
+        return response.body(snapshot.uncompressed());
+    }
+
     @PatchMapping("/{id}/status")
     public Event updateEventStatus(@PathVariable Long id, @RequestParam String status) {
-        return eventService.updateEventStatus(id, status);
+        return eventMutationDispatcher.execute(id, () -> eventService.updateEventStatus(id, status));
     }
 
     @PostMapping("/{id}/duplicate")
@@ -1,9 +1,14 @@
 package com.example.demo.controller;
 
+import com.example.demo.dto.CursorPage;
+import com.example.demo.dto.ParticipantFilterDTO;
+import com.example.demo.dto.ParticipantImportResultDTO;
+import com.example.demo.dto.RegistrationSummaryDTO;
 import com.example.demo.model.Participant;
-import com.example.demo.model.Registration;
 import com.example.demo.service.ParticipantService;
+import com.example.demo.service.ResourceVersionService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import java.util.List;
@@ -13,15 +18,27 @@ import java.util.List;
 @RequiredArgsConstructor
 public class ParticipantController {
     private final ParticipantService participantService;
+    private final ResourceVersionService resourceVersionService;
 
     @GetMapping
-    public List<Participant> getAllParticipants() {
-        return participantService.getAllParticipants();
+    public CursorPage<Participant> getAllParticipants(@RequestParam(required = false) String cursor,
+                                                      @RequestParam(required = false) Integer size) {
+        return participantService.getParticipants(cursor, size);
+    }
+
+    // Фильтр по параметрам запроса: company, active, lastName (начало фамилии), registeredFrom/registeredTo
+    @GetMapping("/filter")
+    public CursorPage<Participant> filterParticipants(@ModelAttribute ParticipantFilterDTO filter,
+                                                      @RequestParam(required = false) String cursor,
+                                                      @RequestParam(required = false) Integer size) {
+        return participantService.filterParticipants(filter, cursor, size);
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<Participant> getParticipantById(@PathVariable Long id) {
-        return ResponseEntity.ok(participantService.getParticipantById(id));
+    public ResponseEntity<Participant> getParticipantById(@PathVariable Long id,
+                                                          @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return ConditionalGet.respond(ifNoneMatch, () -> resourceVersionService.participantTag(id),
+                () -> participantService.getParticipantById(id), resourceVersionService::participantTag);
     }
 
     @PostMapping
@@ -29,6 +46,12 @@ public class ParticipantController {
         return participantService.createParticipant(participant);
     }
 
+    // Массовый импорт: занятые и повторяющиеся адреса пропускаются, результат по каждой строке
+    @PostMapping("/import")
+    public ParticipantImportResultDTO importParticipants(@RequestBody List<Participant> participants) {
+        return participantService.importParticipants(participants);
+    }
+
     @PutMapping("/{id}")
     public Participant updateParticipant(@PathVariable Long id, @RequestBody Participant participant) {
         return participantService.updateParticipant(id, participant);
@@ -62,8 +85,10 @@ public class ParticipantController {
     }
 
     @GetMapping("/{id}/registrations")
-    public List<Registration> getParticipantRegistrations(@PathVariable Long id) {
-        return participantService.getParticipantRegistrations(id);
+    public CursorPage<RegistrationSummaryDTO> getParticipantRegistrations(@PathVariable Long id,
+                                                                @RequestParam(required = false) String cursor,
+                                                                @RequestParam(required = false) Integer size) {
+        return participantService.getParticipantRegistrations(id, cursor, size);
     }
 
     @GetMapping("/event/{eventId}")
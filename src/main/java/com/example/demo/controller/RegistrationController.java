@@ -1,21 +1,78 @@
 package com.example.demo.controller;
 
+import com.example.demo.dto.CursorPage;
+import com.example.demo.dto.BulkRegistrationRequestDTO;
+import com.example.demo.dto.BulkRegistrationResultDTO;
+import com.example.demo.dto.RegistrationDTO;
+import com.example.demo.dto.RegistrationSummaryDTO;
+import com.example.demo.dto.RegistrationTicketDTO;
 import com.example.demo.model.Registration;
+import com.example.demo.service.AdmissionControlService;
+import com.example.demo.service.BulkRegistrationService;
+import com.example.demo.service.EventMutationDispatcher;
+import com.example.demo.service.RegistrationExportService;
+import com.example.demo.service.RegistrationPipelineService;
 import com.example.demo.service.RegistrationService;
+import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.net.URI;
 import java.util.List;
 
 @RestController
 @RequestMapping("/api/registrations")
 @RequiredArgsConstructor
 public class RegistrationController {
+    private static final long MAX_TICKET_WAIT_MS = 30_000;
+
     private final RegistrationService registrationService;
+    private final BulkRegistrationService bulkRegistrationService;
+    private final AdmissionControlService admissionControlService;
+    private final RegistrationPipelineService registrationPipelineService;
+    private final EventMutationDispatcher eventMutationDispatcher;
+    private final RegistrationExportService registrationExportService;
 
     @GetMapping
-    public List<Registration> getAllRegistrations() {
-        return registrationService.getAllRegistrations();
+    public CursorPage<RegistrationSummaryDTO> getAllRegistrations(@RequestParam(required = false) String cursor,
+                                                        @RequestParam(required = false) Integer size) {
+        return registrationService.getRegistrations(cursor, size);
+    }
+
+    // Полная выгрузка (или выгрузка события при eventId) потоком: format=ndjson|csv
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportRegistrations(@RequestParam(required = false) Long eventId,
+                                                                     @RequestParam(defaultValue = "ndjson") String format) {
+        RegistrationExportService.Format exportFormat = RegistrationExportService.Format.of(format);
+        if (eventId == null) {
+            return export("registrations", exportFormat,
+                    out -> registrationExportService.exportAll(exportFormat, out));
+        }
+        registrationExportService.checkEventExists(eventId);
+        return export("event-" + eventId + "-registrations", exportFormat,
+                out -> registrationExportService.exportByEvent(eventId, exportFormat, out));
+    }
+
+    @GetMapping("/session/{sessionId}/export")
+    public ResponseEntity<StreamingResponseBody> exportSessionRegistrations(@PathVariable Long sessionId,
+                                                                            @RequestParam(defaultValue = "ndjson") String format) {
+        RegistrationExportService.Format exportFormat = RegistrationExportService.Format.of(format);
+        registrationExportService.checkSessionExists(sessionId);
+        return export("session-" + sessionId + "-registrations", exportFormat,
+                out -> registrationExportService.exportBySession(sessionId, exportFormat, out));
+    }
+
+    private static ResponseEntity<StreamingResponseBody> export(String fileName, RegistrationExportService.Format format,
+                                                                StreamingResponseBody body) {
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(format.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"" + fileName + "." + format.getExtension() + "\"")
+                .body(body);
     }
 
     @GetMapping("/{id}")
@@ -30,32 +87,61 @@ public class RegistrationController {
     }
 
     // Бизнес-операции
+    // async=true или Prefer: respond-async - запрос ставится в очередь, ответ 202 с тикетом
     @PostMapping("/session")
-    public Registration registerParticipantToSession(@RequestParam Long participantId,
-                                                     @RequestParam Long sessionId) {
-        return registrationService.registerParticipantToSession(participantId, sessionId);
+    public ResponseEntity<?> registerParticipantToSession(@RequestParam Long participantId,
+                                                          @RequestParam Long sessionId,
+                                                          @RequestParam(defaultValue = "false") boolean async,
+                                                          @RequestHeader(value = "Prefer", required = false) String prefer) {
+        if (async || (prefer != null && prefer.contains("respond-async"))) {
+            RegistrationTicketDTO ticket = registrationPipelineService.submit(participantId, sessionId);
+            return ResponseEntity.accepted()
+                    .location(URI.create("/api/registrations/tickets/" + ticket.getTicketId()))
+                    .body(ticket);
+        }
+        return ResponseEntity.ok(admissionControlService.admitSession(sessionId,
+                () -> registrationService.registerParticipantToSession(participantId, sessionId)));
+    }
+
+    @GetMapping("/tickets/{ticketId}")
+    public RegistrationTicketDTO getRegistrationTicket(@PathVariable String ticketId,
+                                                       @RequestParam(defaultValue = "0") long waitMs) {
+        return registrationPipelineService.getTicket(ticketId, Math.min(waitMs, MAX_TICKET_WAIT_MS));
     }
 
     @PostMapping("/event")
     public Registration registerParticipantToEvent(@RequestParam Long participantId,
                                                    @RequestParam Long eventId) {
-        return registrationService.registerForEvent(participantId, eventId);
+        return admissionControlService.admit(eventId,
+                () -> registrationService.registerForEvent(participantId, eventId));
+    }
+
+    @PostMapping("/bulk")
+    public BulkRegistrationResultDTO registerBulk(@Valid @RequestBody BulkRegistrationRequestDTO request) {
+        return bulkRegistrationService.registerBulk(request);
     }
 
     @GetMapping("/session/{sessionId}")
-    public List<Registration> getRegistrationsBySession(@PathVariable Long sessionId) {
-        return registrationService.getRegistrationsBySession(sessionId);
+    public CursorPage<RegistrationSummaryDTO> getRegistrationsBySession(@PathVariable Long sessionId,
+                                                              @RequestParam(required = false) String cursor,
+                                                              @RequestParam(required = false) Integer size) {
+        return registrationService.getRegistrationsBySession(sessionId, cursor, size);
     }
 
     @GetMapping("/participant/{participantId}")
-    public List<Registration> getRegistrationsByParticipant(@PathVariable Long participantId) {
-        return registrationService.getParticipantRegistrations(participantId);
+    public CursorPage<RegistrationSummaryDTO> getRegistrationsByParticipant(@PathVariable Long participantId,
+                                                                  @RequestParam(required = false) String cursor,
+                                                                  @RequestParam(required = false) Integer size) {
+        return registrationService.getParticipantRegistrations(participantId, cursor, size);
     }
 
     @PostMapping("/{id}/cancel")
     public ResponseEntity<?> cancelRegistration(@PathVariable Long id) {
         try {
-            registrationService.cancelRegistration(id);
+            eventMutationDispatcher.executeForRegistration(id, () -> {
+                registrationService.cancelRegistration(id);
+                return null;
+            });
             return ResponseEntity.ok("Registration cancelled successfully");
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(e.getMessage());
@@ -63,8 +149,28 @@ public class RegistrationController {
     }
 
     @PostMapping("/{id}/waitlist")
-    public Registration moveToWaitlist(@PathVariable Long id) {
-        return registrationService.moveToWaitlist(id);
+    public Registration moveToWaitlist(@PathVariable Long id,
+                                       @RequestParam(required = false) Integer priority) {
+        return eventMutationDispatcher.executeForRegistration(id,
+                () -> registrationService.moveToWaitlist(id, priority));
+    }
+
+    @GetMapping("/{id}/waitlist-position")
+    public RegistrationDTO getWaitlistPosition(@PathVariable Long id) {
+        return registrationService.getWaitlistPosition(id);
+    }
+
+    @PostMapping("/session/waitlist")
+    public Registration joinWaitlist(@RequestParam Long participantId,
+                                     @RequestParam Long sessionId,
+                                     @RequestParam(required = false) Integer priority) {
+        return admissionControlService.admitSession(sessionId,
+                () -> registrationService.joinWaitlist(participantId, sessionId, priority));
+    }
+
+    @GetMapping("/session/{sessionId}/waitlist")
+    public List<RegistrationDTO> getSessionWaitlist(@PathVariable Long sessionId) {
+        return registrationService.getSessionWaitlist(sessionId);
     }
 
     @PostMapping("/{id}/attend")
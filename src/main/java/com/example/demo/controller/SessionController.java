@@ -1,8 +1,14 @@
 package com.example.demo.controller;
 
+import com.example.demo.dto.CursorPage;
+import com.example.demo.dto.SessionFilterDTO;
+import com.example.demo.dto.SessionSummaryDTO;
 import com.example.demo.model.Session;
+import com.example.demo.service.EventMutationDispatcher;
+import com.example.demo.service.ResourceVersionService;
 import com.example.demo.service.SessionService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import java.time.LocalDateTime;
@@ -13,15 +19,28 @@ import java.util.List;
 @RequiredArgsConstructor
 public class SessionController {
     private final SessionService sessionService;
+    private final EventMutationDispatcher eventMutationDispatcher;
+    private final ResourceVersionService resourceVersionService;
 
     @GetMapping
-    public List<Session> getAllSessions() {
-        return sessionService.getAllSessions();
+    public CursorPage<SessionSummaryDTO> getAllSessions(@RequestParam(required = false) String cursor,
+                                              @RequestParam(required = false) Integer size) {
+        return sessionService.getSessions(cursor, size);
+    }
+
+    // Фильтр по параметрам запроса: eventId, speakerId, status, type, from/to (время начала)
+    @GetMapping("/search")
+    public CursorPage<SessionSummaryDTO> searchSessions(@ModelAttribute SessionFilterDTO filter,
+                                                        @RequestParam(required = false) String cursor,
+                                                        @RequestParam(required = false) Integer size) {
+        return sessionService.searchSessions(filter, cursor, size);
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<Session> getSessionById(@PathVariable Long id) {
-        return ResponseEntity.ok(sessionService.getSessionById(id));
+    public ResponseEntity<Session> getSessionById(@PathVariable Long id,
+                                                  @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return ConditionalGet.respond(ifNoneMatch, () -> resourceVersionService.sessionTag(id),
+                () -> sessionService.getSessionById(id), resourceVersionService::sessionTag);
     }
 
     @PostMapping
@@ -42,8 +61,12 @@ public class SessionController {
 
     // Бизнес-операции
     @GetMapping("/event/{eventId}")
-    public List<Session> getSessionsByEvent(@PathVariable Long eventId) {
-        return sessionService.getSessionsByEvent(eventId);
+    public ResponseEntity<CursorPage<SessionSummaryDTO>> getSessionsByEvent(@PathVariable Long eventId,
+                                                  @RequestParam(required = false) String cursor,
+                                                  @RequestParam(required = false) Integer size,
+                                                  @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return ConditionalGet.respond(ifNoneMatch, () -> resourceVersionService.eventSessionsTag(eventId, cursor, size),
+                () -> sessionService.getSessionsByEvent(eventId, cursor, size), resourceVersionService::eventSessionsTag);
     }
 
     @GetMapping("/available")
@@ -57,8 +80,10 @@ public class SessionController {
     }
 
     @GetMapping("/speaker/{speakerId}")
-    public List<Session> getSessionsBySpeaker(@PathVariable Long speakerId) {
-        return sessionService.getSessionsBySpeaker(speakerId);
+    public CursorPage<SessionSummaryDTO> getSessionsBySpeaker(@PathVariable Long speakerId,
+                                                    @RequestParam(required = false) String cursor,
+                                                    @RequestParam(required = false) Integer size) {
+        return sessionService.getSessionsBySpeaker(speakerId, cursor, size);
     }
 
     @GetMapping("/{id}/room-availability")
@@ -71,7 +96,8 @@ public class SessionController {
 
     @PatchMapping("/{id}/capacity")
     public Session updateSessionCapacity(@PathVariable Long id, @RequestParam Integer capacity) {
-        return sessionService.updateSessionCapacity(id, capacity);
+        return eventMutationDispatcher.executeForSession(id,
+                () -> sessionService.updateSessionCapacity(id, capacity));
     }
 
     @PostMapping("/{id}/duplicate")
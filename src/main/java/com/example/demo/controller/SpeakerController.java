@@ -1,8 +1,14 @@
 package com.example.demo.controller;
 
+import com.example.demo.dto.CursorPage;
+import com.example.demo.dto.SpeakerAvailabilityDTO;
+import com.example.demo.dto.SpeakerFilterDTO;
+import com.example.demo.dto.TimeSlotDTO;
 import com.example.demo.model.Session;
 import com.example.demo.model.Speaker;
+import com.example.demo.service.ResourceVersionService;
 import com.example.demo.service.SpeakerService;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -13,9 +19,11 @@ import java.util.List;
 @RequestMapping("/api/speakers")
 public class SpeakerController {
     private final SpeakerService speakerService;
+    private final ResourceVersionService resourceVersionService;
 
-    public SpeakerController(SpeakerService speakerService) {
+    public SpeakerController(SpeakerService speakerService, ResourceVersionService resourceVersionService) {
         this.speakerService = speakerService;
+        this.resourceVersionService = resourceVersionService;
     }
 
     // CRUD операции
@@ -26,20 +34,27 @@ public class SpeakerController {
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<Speaker> getSpeaker(@PathVariable Long id) {
-        Speaker speaker = speakerService.getSpeakerById(id);
-        if (speaker == null) {
-            return ResponseEntity.notFound().build();
-        }
-        return ResponseEntity.ok(speaker);
+    public ResponseEntity<Speaker> getSpeaker(@PathVariable Long id,
+                                              @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return ConditionalGet.respond(ifNoneMatch, () -> resourceVersionService.speakerTag(id),
+                () -> speakerService.getSpeakerById(id), resourceVersionService::speakerTag);
     }
 
     @GetMapping
-    public ResponseEntity<List<Speaker>> getAllSpeakers() {
-        List<Speaker> speakers = speakerService.getAllSpeakers();
+    public ResponseEntity<CursorPage<Speaker>> getAllSpeakers(@RequestParam(required = false) String cursor,
+                                                              @RequestParam(required = false) Integer size) {
+        CursorPage<Speaker> speakers = speakerService.getSpeakers(cursor, size);
         return ResponseEntity.ok(speakers);
     }
 
+    // Фильтр по параметрам запроса: level, minRating/maxRating, company, featured
+    @GetMapping("/search")
+    public ResponseEntity<CursorPage<Speaker>> searchSpeakers(@ModelAttribute SpeakerFilterDTO filter,
+                                                              @RequestParam(required = false) String cursor,
+                                                              @RequestParam(required = false) Integer size) {
+        return ResponseEntity.ok(speakerService.searchSpeakers(filter, cursor, size));
+    }
+
     @PutMapping("/{id}")
     public ResponseEntity<Speaker> updateSpeaker(
             @PathVariable Long id,
@@ -104,4 +119,11 @@ public class SpeakerController {
         List<Speaker> speakers = speakerService.getAvailableSpeakers(startTime, endTime);
         return ResponseEntity.ok(speakers);
     }
+
+    // Матрица доступности спикеров по нескольким слотам за один запрос
+    @PostMapping("/availability")
+    public ResponseEntity<SpeakerAvailabilityDTO> getSpeakerAvailability(
+            @RequestBody List<TimeSlotDTO> slots) {
+        return ResponseEntity.ok(speakerService.getSpeakerAvailability(slots));
+    }
 }
\ No newline at end of file
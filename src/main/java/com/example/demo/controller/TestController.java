@@ -1,5 +1,6 @@
 package com.example.demo.controller;
 
+import com.example.demo.exception.AdmissionRejectedException;
 import com.example.demo.model.Event;
 import com.example.demo.model.Participant;
 import com.example.demo.model.Registration;
@@ -7,6 +8,8 @@ import com.example.demo.model.Session;
 import com.example.demo.repository.EventRepository;
 import com.example.demo.repository.ParticipantRepository;
 import com.example.demo.repository.SessionRepository;
+import com.example.demo.service.AdmissionControlService;
+import com.example.demo.service.EventMutationDispatcher;
 import com.example.demo.service.RegistrationService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
@@ -23,6 +26,8 @@ public class TestController {
     private final ParticipantRepository participantRepository;
     private final SessionRepository sessionRepository;
     private final RegistrationService registrationService;
+    private final AdmissionControlService admissionControlService;
+    private final EventMutationDispatcher eventMutationDispatcher;
 
     @GetMapping("/events")
     public List<Event> getAllEvents() {
@@ -43,8 +48,11 @@ public class TestController {
     public ResponseEntity<?> registerForEvent(@RequestParam Long participantId,
                                               @RequestParam Long eventId) {
         try {
-            Registration registration = registrationService.registerForEvent(participantId, eventId);
+            Registration registration = admissionControlService.admit(eventId,
+                    () -> registrationService.registerForEvent(participantId, eventId));
             return ResponseEntity.ok(registration);
+        } catch (AdmissionRejectedException e) {
+            throw e;
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(e.getMessage());
         }
@@ -54,8 +62,11 @@ public class TestController {
     public ResponseEntity<?> registerForSession(@RequestParam Long participantId,
                                                 @RequestParam Long sessionId) {
         try {
-            Registration registration = registrationService.registerForSession(participantId, sessionId);
+            Registration registration = admissionControlService.admitSession(sessionId,
+                    () -> registrationService.registerForSession(participantId, sessionId));
             return ResponseEntity.ok(registration);
+        } catch (AdmissionRejectedException e) {
+            throw e;
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(e.getMessage());
         }
@@ -64,7 +75,10 @@ public class TestController {
     @PostMapping("/cancel/{registrationId}")
     public ResponseEntity<?> cancelRegistration(@PathVariable Long registrationId) {
         try {
-            registrationService.cancelRegistration(registrationId);
+            eventMutationDispatcher.executeForRegistration(registrationId, () -> {
+                registrationService.cancelRegistration(registrationId);
+                return null;
+            });
             return ResponseEntity.ok("Registration cancelled successfully");
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(e.getMessage());
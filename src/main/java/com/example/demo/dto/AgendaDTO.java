@@ -0,0 +1,15 @@
+package com.example.demo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.util.List;
+
+// Публичная программа события: сессии по времени начала со сведениями о спикерах
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AgendaDTO {
+    private Long eventId;
+    private List<AgendaSessionDTO> sessions;
+}
@@ -0,0 +1,23 @@
+package com.example.demo.dto;
+
+import com.example.demo.model.Session;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+
+// Сессия в программе события; счетчиков мест нет - программа не меняется при регистрациях
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AgendaSessionDTO {
+    private Long id;
+    private String title;
+    private String description;
+    private LocalDateTime startTime;
+    private LocalDateTime endTime;
+    private String roomNumber;
+    private Session.SessionType type;
+    private Session.SessionStatus status;
+    private AgendaSpeakerDTO speaker;
+}
@@ -0,0 +1,19 @@
+package com.example.demo.dto;
+
+import com.example.demo.model.Speaker;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Краткие сведения о спикере для программы события
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AgendaSpeakerDTO {
+    private Long id;
+    private String name;
+    private String company;
+    private String specialization;
+    private String photoUrl;
+    private Speaker.SpeakerLevel speakerLevel;
+}
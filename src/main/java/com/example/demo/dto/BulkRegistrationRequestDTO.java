@@ -0,0 +1,15 @@
+package com.example.demo.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import lombok.Data;
+import java.util.List;
+
+@Data
+public class BulkRegistrationRequestDTO {
+    // Каждый участник регистрируется на каждую из сессий
+    @NotEmpty(message = "Список участников обязателен")
+    private List<Long> participantIds;
+
+    @NotEmpty(message = "Список сессий обязателен")
+    private List<Long> sessionIds;
+}
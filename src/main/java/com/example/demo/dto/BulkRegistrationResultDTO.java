@@ -0,0 +1,19 @@
+package com.example.demo.dto;
+
+import lombok.Data;
+import java.util.List;
+
+@Data
+public class BulkRegistrationResultDTO {
+    private Integer requested;
+    private Integer succeeded;
+    private Integer failed;
+    private List<BulkRegistrationRowDTO> rows;
+
+    public BulkRegistrationResultDTO(List<BulkRegistrationRowDTO> rows) {
+        this.rows = rows;
+        this.requested = rows.size();
+        this.succeeded = (int) rows.stream().filter(BulkRegistrationRowDTO::getSuccess).count();
+        this.failed = this.requested - this.succeeded;
+    }
+}
@@ -0,0 +1,16 @@
+package com.example.demo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkRegistrationRowDTO {
+    private Long participantId;
+    private Long sessionId;
+    private Boolean success;
+    private Long registrationId;
+    private String error;
+}
@@ -0,0 +1,19 @@
+package com.example.demo.dto;
+
+import com.example.demo.model.Event;
+import lombok.Data;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDateTime;
+
+// Параметры динамического фильтра событий (EventSpecifications); незаданные не участвуют.
+// from/to ограничивают дату начала события
+@Data
+public class EventFilterDTO {
+    private Event.EventStatus status;
+    private Boolean registrationOpen;
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime from;
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime to;
+}
@@ -0,0 +1,25 @@
+package com.example.demo.dto;
+
+import com.example.demo.model.Event;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+
+// Строка списка событий: заполняется конструктором прямо в JPQL (EventRepository)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EventSummaryDTO {
+    private Long id;
+    private String name;
+    private String description;
+    private LocalDateTime startDate;
+    private LocalDateTime endDate;
+    private String location;
+    private Integer maxParticipants;
+    private Integer currentParticipants;
+    private Event.EventStatus status;
+    private Boolean requiresApproval;
+    private Boolean registrationOpen;
+}
@@ -0,0 +1,19 @@
+package com.example.demo.dto;
+
+import lombok.Data;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDateTime;
+
+// Параметры динамического фильтра участников (ParticipantSpecifications); незаданные не участвуют
+@Data
+public class ParticipantFilterDTO {
+    private String company;
+    private Boolean active;
+    // Начало фамилии, с учетом регистра
+    private String lastName;
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime registeredFrom;
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime registeredTo;
+}
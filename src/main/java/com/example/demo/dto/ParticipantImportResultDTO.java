@@ -0,0 +1,19 @@
+package com.example.demo.dto;
+
+import lombok.Data;
+import java.util.List;
+
+@Data
+public class ParticipantImportResultDTO {
+    private Integer requested;
+    private Integer imported;
+    private Integer skipped;
+    private List<ParticipantImportRowDTO> rows;
+
+    public ParticipantImportResultDTO(List<ParticipantImportRowDTO> rows) {
+        this.rows = rows;
+        this.requested = rows.size();
+        this.imported = (int) rows.stream().filter(ParticipantImportRowDTO::getSuccess).count();
+        this.skipped = this.requested - this.imported;
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.demo.dto;
+
+import com.example.demo.model.Registration;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+
+// Строка выгрузки регистраций вместе с данными участника (ростер);
+// sessionId и sessionTitle пусты у регистрации на само событие
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RegistrationExportDTO {
+    private Long id;
+    private LocalDateTime registrationDate;
+    private Registration.RegistrationStatus status;
+    private Integer waitlistPriority;
+    private Long eventId;
+    private String eventName;
+    private Long sessionId;
+    private String sessionTitle;
+    private Long participantId;
+    private String firstName;
+    private String lastName;
+    private String email;
+    private String company;
+}
@@ -0,0 +1,22 @@
+package com.example.demo.dto;
+
+import com.example.demo.model.Registration;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+
+// Строка списка регистраций: sessionId пуст у регистрации на само событие
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RegistrationSummaryDTO {
+    private Long id;
+    private LocalDateTime registrationDate;
+    private Registration.RegistrationStatus status;
+    private Integer waitlistPriority;
+    private LocalDateTime waitlistedAt;
+    private Long participantId;
+    private Long sessionId;
+    private Long eventId;
+}
@@ -0,0 +1,25 @@
+package com.example.demo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RegistrationTicketDTO {
+
+    public enum TicketStatus {
+        QUEUED, COMPLETED, FAILED
+    }
+
+    private String ticketId;
+    private Long participantId;
+    private Long sessionId;
+    private TicketStatus status;
+    private Long registrationId;
+    private String error;
+    private LocalDateTime submittedAt;
+    private LocalDateTime completedAt;
+}
@@ -0,0 +1,21 @@
+package com.example.demo.dto;
+
+import com.example.demo.model.Session;
+import lombok.Data;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDateTime;
+
+// Параметры динамического фильтра сессий (SessionSpecifications); незаданные не участвуют.
+// from/to ограничивают время начала сессии
+@Data
+public class SessionFilterDTO {
+    private Long eventId;
+    private Long speakerId;
+    private Session.SessionStatus status;
+    private Session.SessionType type;
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime from;
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime to;
+}
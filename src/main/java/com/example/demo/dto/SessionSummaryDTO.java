@@ -0,0 +1,28 @@
+package com.example.demo.dto;
+
+import com.example.demo.model.Session;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+
+// Строка списка сессий: связи представлены только идентификаторами
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SessionSummaryDTO {
+    private Long id;
+    private String title;
+    private String description;
+    private LocalDateTime startTime;
+    private LocalDateTime endTime;
+    private Integer maxCapacity;
+    private Integer currentParticipants;
+    private String roomNumber;
+    private Session.SessionType type;
+    private Session.SessionStatus status;
+    private Boolean requiresRegistration;
+    private Long eventId;
+    private Long speakerId;
+    private Long version;
+}
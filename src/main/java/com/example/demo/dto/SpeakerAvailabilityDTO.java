@@ -0,0 +1,16 @@
+package com.example.demo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.util.List;
+import java.util.Map;
+
+// Матрица доступности: available.get(speakerId).get(i) - свободен ли спикер в слоте slots.get(i)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SpeakerAvailabilityDTO {
+    private List<TimeSlotDTO> slots;
+    private Map<Long, List<Boolean>> available;
+}
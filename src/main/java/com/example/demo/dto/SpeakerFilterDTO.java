@@ -0,0 +1,14 @@
+package com.example.demo.dto;
+
+import com.example.demo.model.Speaker;
+import lombok.Data;
+
+// Параметры динамического фильтра спикеров (SpeakerSpecifications); незаданные не участвуют
+@Data
+public class SpeakerFilterDTO {
+    private Speaker.SpeakerLevel level;
+    private Double minRating;
+    private Double maxRating;
+    private String company;
+    private Boolean featured;
+}
@@ -0,0 +1,15 @@
+package com.example.demo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+
+// Полуинтервал времени [startTime, endTime)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TimeSlotDTO {
+    private LocalDateTime startTime;
+    private LocalDateTime endTime;
+}
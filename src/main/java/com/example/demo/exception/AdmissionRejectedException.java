@@ -0,0 +1,16 @@
+package com.example.demo.exception;
+
+// Запрос отклонен контролем допуска: очередь события переполнена
+// или не удалось дождаться свободного слота работы с БД
+public class AdmissionRejectedException extends RuntimeException {
+    private final long retryAfterSeconds;
+
+    public AdmissionRejectedException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -1,9 +1,16 @@
 package com.example.demo.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.*;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.Generated;
+import org.hibernate.generator.EventType;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
@@ -13,6 +20,9 @@ import java.util.List;
 @NoArgsConstructor
 @AllArgsConstructor
 @Table(name = "events")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "events")
+@JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
 public class Event {
 
     public enum EventStatus {
@@ -20,9 +30,18 @@ public class Event {
     }
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // Блоки по 50 значений (pooled-lo), см. db/migration V4
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "events_seq")
+    @SequenceGenerator(name = "events_seq", sequenceName = "events_seq", allocationSize = 50)
     private Long id;
 
+    // Версия для оптимистической блокировки и ETag. Счетчик участников ее не меняет -
+    // ETag учитывает его отдельно (ResourceVersionService)
+    @Version
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    @Column(nullable = false)
+    private Long version;
+
     @Column(nullable = false)
     private String name;
 
@@ -41,7 +60,11 @@ public class Event {
     @Column(name = "max_participants")
     private Integer maxParticipants;
 
-    @Column(name = "current_participants")
+    // Счетчик меняется только атомарными UPDATE (ParticipantCounterService). Hibernate его
+    // не обновляет, но получает из БД вместе с каждым UPDATE сущности, чтобы в кэш
+    // второго уровня не попал счетчик, прочитанный до параллельной регистрации
+    @Generated(event = EventType.UPDATE, writable = true)
+    @Column(name = "current_participants", updatable = false)
     private Integer currentParticipants = 0;
 
     @Enumerated(EnumType.STRING)
@@ -57,9 +80,12 @@ public class Event {
     @Column(name = "deleted", nullable = false)
     private Boolean deleted = false;
 
+    @JsonIgnore
     @OneToMany(mappedBy = "event", cascade = CascadeType.ALL)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "event-sessions")
     private List<Session> sessions = new ArrayList<>();
 
+    @JsonIgnore
     @OneToMany(mappedBy = "event", cascade = CascadeType.ALL)
     private List<Registration> registrations = new ArrayList<>();
 
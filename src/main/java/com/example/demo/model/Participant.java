@@ -1,5 +1,8 @@
 package com.example.demo.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.*;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -7,18 +10,28 @@ import lombok.AllArgsConstructor;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
 
 @Entity
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 @Table(name = "participants")
+@JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
 public class Participant {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // Блоки по 50 значений (pooled-lo), см. db/migration V4
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "participants_seq")
+    @SequenceGenerator(name = "participants_seq", sequenceName = "participants_seq", allocationSize = 50)
     private Long id;
 
+    // Версия для оптимистической блокировки и ETag
+    @Version
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    @Column(nullable = false)
+    private Long version;
+
     @Column(name = "first_name", nullable = false)
     private String firstName;
 
@@ -28,6 +41,11 @@ public class Participant {
     @Column(nullable = false, unique = true)
     private String email;
 
+    // Заполняется в setEmail; уникальность проверяется по нему (V6)
+    @JsonIgnore
+    @Column(name = "email_normalized", nullable = false, unique = true)
+    private String emailNormalized;
+
     private String phone;
 
     private String company;
@@ -40,9 +58,19 @@ public class Participant {
     @Column(name = "is_active")
     private Boolean isActive = true;
 
+    @JsonIgnore
     @OneToMany(mappedBy = "participant", cascade = CascadeType.ALL)
     private List<Registration> registrations = new ArrayList<>();
 
+    public void setEmail(String email) {
+        this.email = email;
+        this.emailNormalized = normalizeEmail(email);
+    }
+
+    public static String normalizeEmail(String email) {
+        return email == null ? null : email.trim().toLowerCase(Locale.ROOT);
+    }
+
     // Метод для получения полного имени
     public String getFullName() {
         return firstName + " " + lastName;
@@ -1,5 +1,6 @@
 package com.example.demo.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import jakarta.persistence.*;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -9,6 +10,7 @@ import java.time.LocalDateTime;
 @Data
 @NoArgsConstructor
 @Table(name = "registrations")
+@JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
 public class Registration {
 
     public enum RegistrationStatus {
@@ -16,7 +18,9 @@ public class Registration {
     }
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // Блоки по 50 значений (pooled-lo), см. db/migration V4
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "registrations_seq")
+    @SequenceGenerator(name = "registrations_seq", sequenceName = "registrations_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "registration_date")
@@ -26,12 +30,19 @@ public class Registration {
     @Column(nullable = false)
     private RegistrationStatus status = RegistrationStatus.CONFIRMED;
 
+    // Приоритет в листе ожидания: больше - раньше
+    @Column(name = "waitlist_priority")
+    private Integer waitlistPriority = 0;
+
+    @Column(name = "waitlisted_at")
+    private LocalDateTime waitlistedAt;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "participant_id", nullable = false)
     private Participant participant;
 
     @ManyToOne(fetch = FetchType.LAZY)
-    @JoinColumn(name = "session_id", nullable = false)
+    @JoinColumn(name = "session_id")
     private Session session;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -1,12 +1,22 @@
 package com.example.demo.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.Generated;
+import org.hibernate.generator.EventType;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 
 @Entity
 @Table(name = "sessions")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "sessions")
+@JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
 public class Session {
 
     public enum SessionType {
@@ -18,9 +28,18 @@ public class Session {
     }
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // Блоки по 50 значений (pooled-lo), см. db/migration V4
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "sessions_seq")
+    @SequenceGenerator(name = "sessions_seq", sequenceName = "sessions_seq", allocationSize = 50)
     private Long id;
 
+    // Версия для оптимистической блокировки и ETag. Счетчик участников ее не меняет -
+    // ETag учитывает его отдельно (ResourceVersionService)
+    @Version
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    @Column(nullable = false)
+    private Long version;
+
     @Column(nullable = false)
     private String title;
 
@@ -36,7 +55,11 @@ public class Session {
     @Column(name = "max_capacity", nullable = false)
     private Integer maxCapacity = 50;
 
-    @Column(name = "current_participants")
+    // Счетчик меняется только атомарными UPDATE (ParticipantCounterService). Hibernate его
+    // не обновляет, но получает из БД вместе с каждым UPDATE сущности, чтобы в кэш
+    // второго уровня не попал счетчик, прочитанный до параллельной регистрации
+    @Generated(event = EventType.UPDATE, writable = true)
+    @Column(name = "current_participants", updatable = false)
     private Integer currentParticipants = 0;
 
     @Column(name = "room_number")
@@ -61,6 +84,7 @@ public class Session {
     @JoinColumn(name = "speaker_id")
     private Speaker speaker;
 
+    @JsonIgnore
     @OneToMany(mappedBy = "session", cascade = CascadeType.ALL)
     private List<Registration> registrations = new ArrayList<>();
 
@@ -68,6 +92,9 @@ public class Session {
     public Long getId() { return id; }
     public void setId(Long id) { this.id = id; }
 
+    public Long getVersion() { return version; }
+    public void setVersion(Long version) { this.version = version; }
+
     public String getTitle() { return title; }
     public void setTitle(String title) { this.title = title; }
 
@@ -1,9 +1,14 @@
 package com.example.demo.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.*;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
@@ -13,6 +18,9 @@ import java.util.List;
 @NoArgsConstructor
 @AllArgsConstructor
 @Table(name = "speakers")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "speakers")
+@JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
 public class Speaker {
 
     public enum SpeakerLevel {
@@ -20,9 +28,17 @@ public class Speaker {
     }
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // Блоки по 50 значений (pooled-lo), см. db/migration V4
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "speakers_seq")
+    @SequenceGenerator(name = "speakers_seq", sequenceName = "speakers_seq", allocationSize = 50)
     private Long id;
 
+    // Версия для оптимистической блокировки и ETag
+    @Version
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    @Column(nullable = false)
+    private Long version;
+
     @Column(nullable = false)
     private String name;
 
@@ -74,7 +90,9 @@ public class Speaker {
     private LocalDateTime updatedAt = LocalDateTime.now();
 
     // Связи
+    @JsonIgnore
     @OneToMany(mappedBy = "speaker", cascade = CascadeType.ALL)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "speaker-sessions")
     private List<Session> sessions = new ArrayList<>();
 
     // Бизнес-методы
@@ -1,26 +1,62 @@
 package com.example.demo.repository;
 
+import com.example.demo.dto.EventSummaryDTO;
 import com.example.demo.model.Event;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 
 @Repository
-public interface EventRepository extends JpaRepository<Event, Long> {
+public interface EventRepository extends JpaRepository<Event, Long>, JpaSpecificationExecutor<Event> {
 
+    // Keyset-пагинация (KeysetPages): строки списка выбираются сразу в DTO, без загрузки сущностей
+    @Query("SELECT new com.example.demo.dto.EventSummaryDTO(e.id, e.name, e.description, e.startDate, e.endDate, " +
+            "e.location, e.maxParticipants, e.currentParticipants, e.status, e.requiresApproval, e.registrationOpen) " +
+            "FROM Event e WHERE e.id > :afterId ORDER BY e.id")
+    List<EventSummaryDTO> findSummaries(@Param("afterId") Long afterId, Limit limit);
+
+    // Редко меняющиеся выборки - в кэше запросов; Hibernate сбрасывает его при изменении events
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     List<Event> findByStatus(Event.EventStatus status);
 
-    List<Event> findByRegistrationOpenTrue();
+    // Удаленные события не выбираются (частичные индексы в db/migration/postgresql)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    List<Event> findByRegistrationOpenTrueAndDeletedFalse();
 
-    @Query("SELECT e FROM Event e WHERE e.startDate <= :date AND e.endDate >= :date")
+    @Query("SELECT e FROM Event e WHERE e.startDate <= :date AND e.endDate >= :date AND e.deleted = false")
     List<Event> findEventsByDate(@Param("date") LocalDateTime date);
 
+    // Блокирует события сессий массовой регистрации. Вызывается до блокировки сессий:
+    // регистрация по одной тоже занимает сначала место на событии, затем в сессии
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT e FROM Event e WHERE e.id IN (SELECT s.event.id FROM Session s WHERE s.id IN :sessionIds) " +
+            "ORDER BY e.id")
+    List<Event> findAllBySessionIdsForUpdate(@Param("sessionIds") Collection<Long> sessionIds);
+
     @Query("SELECT e FROM Event e WHERE e.maxParticipants IS NULL OR e.currentParticipants < e.maxParticipants")
     List<Event> findEventsWithAvailableSpots();
 
+    // Версия события для ETag (ResourceVersionService)
+    interface VersionView {
+        Long getVersion();
+        Integer getCurrentParticipants();
+    }
+
+    @Query("SELECT e.version AS version, e.currentParticipants AS currentParticipants FROM Event e WHERE e.id = :id")
+    Optional<VersionView> findVersionById(@Param("id") Long id);
+
     List<Event> findByLocationContainingIgnoreCase(String location);
 }
\ No newline at end of file
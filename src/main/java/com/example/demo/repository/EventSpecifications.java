@@ -0,0 +1,55 @@
+package com.example.demo.repository;
+
+import com.example.demo.dto.EventFilterDTO;
+import com.example.demo.model.Event;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDateTime;
+
+// Условия динамического фильтра событий. Каждое условие - предикат SQL по колонке
+// с индексом (db/migration, V2 и V3); для незаданного параметра условие не добавляется.
+// Удаленные события не выбираются (частичные индексы в db/migration/postgresql)
+public final class EventSpecifications {
+
+    private EventSpecifications() {
+    }
+
+    public static Specification<Event> matching(EventFilterDTO filter) {
+        return Specification.allOf(
+                notDeleted(),
+                hasStatus(filter.getStatus()),
+                isRegistrationOpen(filter.getRegistrationOpen()),
+                startsBetween(filter.getFrom(), filter.getTo()));
+    }
+
+    public static Specification<Event> notDeleted() {
+        return (root, query, cb) -> cb.isFalse(root.get("deleted"));
+    }
+
+    public static Specification<Event> hasStatus(Event.EventStatus status) {
+        return status == null ? null : (root, query, cb) -> cb.equal(root.get("status"), status);
+    }
+
+    // Флаги - литералами, а не параметрами: так условие совпадает с условием частичного индекса
+    public static Specification<Event> isRegistrationOpen(Boolean open) {
+        if (open == null) {
+            return null;
+        }
+        return (root, query, cb) -> open ? cb.isTrue(root.get("registrationOpen")) : cb.isFalse(root.get("registrationOpen"));
+    }
+
+    public static Specification<Event> startsBetween(LocalDateTime from, LocalDateTime to) {
+        if (from == null && to == null) {
+            return null;
+        }
+        return (root, query, cb) -> {
+            if (from == null) {
+                return cb.lessThanOrEqualTo(root.get("startDate"), to);
+            }
+            if (to == null) {
+                return cb.greaterThanOrEqualTo(root.get("startDate"), from);
+            }
+            return cb.between(root.get("startDate"), from, to);
+        };
+    }
+}
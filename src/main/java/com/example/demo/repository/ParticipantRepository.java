@@ -1,17 +1,53 @@
 package com.example.demo.repository;
 
 import com.example.demo.model.Participant;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface ParticipantRepository extends JpaRepository<Participant, Long> {
+public interface ParticipantRepository extends JpaRepository<Participant, Long>, JpaSpecificationExecutor<Participant> {
+
+    // Keyset-пагинация (KeysetPages)
+    Window<Participant> findAllBy(ScrollPosition position, Limit limit, Sort sort);
 
     Optional<Participant> findByEmail(String email);
 
+    // Поиск по нормализованному адресу (Participant.normalizeEmail)
+    Optional<Participant> findByEmailNormalized(String emailNormalized);
+
+    // Все известные адреса для ParticipantEmailIndex
+    @Query("SELECT p.emailNormalized FROM Participant p")
+    List<String> findAllNormalizedEmails();
+
+    @Query("SELECT p.emailNormalized FROM Participant p WHERE p.emailNormalized IN :emails")
+    List<String> findExistingNormalizedEmails(@Param("emails") Collection<String> emails);
+
+    // Версия участника для ETag (ResourceVersionService)
+    @Query("SELECT p.version FROM Participant p WHERE p.id = :id")
+    Optional<Long> findVersionById(@Param("id") Long id);
+
     List<Participant> findByCompany(String company);
 
     List<Participant> findByIsActiveTrue();
+
+    // Составы одним запросом, без отдельной загрузки участника каждой регистрации
+    @Query("SELECT p FROM Registration r JOIN r.participant p WHERE r.session.id = :sessionId ORDER BY r.id")
+    List<Participant> findRosterBySessionId(@Param("sessionId") Long sessionId);
+
+    @Query("SELECT p FROM Participant p WHERE p.id IN " +
+            "(SELECT r.participant.id FROM Registration r WHERE r.event.id = :eventId) ORDER BY p.id")
+    List<Participant> findRosterByEventId(@Param("eventId") Long eventId);
+
+    @Query("SELECT p.id FROM Participant p WHERE p.id IN :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
 }
\ No newline at end of file
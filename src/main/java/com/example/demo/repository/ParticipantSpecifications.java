@@ -0,0 +1,70 @@
+package com.example.demo.repository;
+
+import com.example.demo.dto.ParticipantFilterDTO;
+import com.example.demo.model.Participant;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDateTime;
+import java.util.Locale;
+
+// Условия динамического фильтра участников. Каждое условие - предикат SQL по колонке
+// с индексом (db/migration, V3); для незаданного параметра условие не добавляется
+public final class ParticipantSpecifications {
+
+    private ParticipantSpecifications() {
+    }
+
+    public static Specification<Participant> matching(ParticipantFilterDTO filter) {
+        return Specification.allOf(
+                hasCompany(filter.getCompany()),
+                isActive(filter.getActive()),
+                lastNameStartsWith(filter.getLastName()),
+                registeredBetween(filter.getRegisteredFrom(), filter.getRegisteredTo()));
+    }
+
+    public static Specification<Participant> hasCompany(String company) {
+        return company == null ? null : (root, query, cb) -> cb.equal(root.get("company"), company);
+    }
+
+    public static Specification<Participant> isActive(Boolean active) {
+        return active == null ? null : (root, query, cb) -> cb.equal(root.get("isActive"), active);
+    }
+
+    // LIKE 'prefix%' - диапазон по индексу фамилии
+    public static Specification<Participant> lastNameStartsWith(String prefix) {
+        if (prefix == null || prefix.isBlank()) {
+            return null;
+        }
+        return (root, query, cb) -> cb.like(root.get("lastName"), escapeLike(prefix) + "%", '\\');
+    }
+
+    public static Specification<Participant> registeredBetween(LocalDateTime from, LocalDateTime to) {
+        if (from == null && to == null) {
+            return null;
+        }
+        return (root, query, cb) -> {
+            if (from == null) {
+                return cb.lessThanOrEqualTo(root.get("registrationDate"), to);
+            }
+            if (to == null) {
+                return cb.greaterThanOrEqualTo(root.get("registrationDate"), from);
+            }
+            return cb.between(root.get("registrationDate"), from, to);
+        };
+    }
+
+    // Поиск подстроки в имени, фамилии, email и компании без учета регистра.
+    // Подстроку B-tree индекс не ищет: это просмотр таблицы, но в БД, без загрузки сущностей
+    public static Specification<Participant> containsKeyword(String keyword) {
+        String pattern = "%" + escapeLike(keyword.toLowerCase(Locale.ROOT)) + "%";
+        return (root, query, cb) -> cb.or(
+                cb.like(cb.lower(root.get("firstName")), pattern, '\\'),
+                cb.like(cb.lower(root.get("lastName")), pattern, '\\'),
+                cb.like(cb.lower(root.get("email")), pattern, '\\'),
+                cb.like(cb.lower(root.get("company")), pattern, '\\'));
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
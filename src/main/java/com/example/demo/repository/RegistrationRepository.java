@@ -1,12 +1,23 @@
 package com.example.demo.repository;
 
+import com.example.demo.config.PrimaryRead;
+import com.example.demo.dto.RegistrationExportDTO;
+import com.example.demo.dto.RegistrationSummaryDTO;
 import com.example.demo.model.Registration;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
-import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface RegistrationRepository extends JpaRepository<Registration, Long> {
@@ -17,23 +28,128 @@ public interface RegistrationRepository extends JpaRepository<Registration, Long
     // Метод для подсчета регистраций на сессию
     long countBySessionId(Long sessionId);
 
+    // Поиск по связям явным JPQL: условие ложится на столбец внешнего ключа и его индекс,
+    // а не на LEFT JOIN к связанной таблице, который строит производный запрос
+
     // Метод для поиска регистрации по участнику и событию
-    Registration findByParticipantIdAndEventId(Long participantId, Long eventId);
+    @Query("SELECT r FROM Registration r WHERE r.participant.id = :participantId AND r.event.id = :eventId")
+    Registration findByParticipantIdAndEventId(@Param("participantId") Long participantId,
+                                               @Param("eventId") Long eventId);
 
-    // Метод для проверки пересечения времени
-    @Query("SELECT CASE WHEN COUNT(r) > 0 THEN true ELSE false END " +
-            "FROM Registration r " +
-            "JOIN r.session s " +
-            "WHERE r.participant.id = :participantId " +
-            "AND s.startTime < :endTime " +
-            "AND s.endTime > :startTime")
-    boolean existsParticipantTimeConflict(@Param("participantId") Long participantId,
-                                          @Param("startTime") LocalDateTime startTime,
-                                          @Param("endTime") LocalDateTime endTime);
+    // Регистрация на само событие (без сессии)
+    default Registration findFirstByParticipantIdAndEventIdAndSessionIsNull(Long participantId, Long eventId) {
+        return findEventOnlyRegistrations(participantId, eventId, Limit.of(1)).stream().findFirst().orElse(null);
+    }
+
+    @Query("SELECT r FROM Registration r WHERE r.participant.id = :participantId AND r.event.id = :eventId " +
+            "AND r.session IS NULL ORDER BY r.id")
+    List<Registration> findEventOnlyRegistrations(@Param("participantId") Long participantId,
+                                                  @Param("eventId") Long eventId, Limit limit);
 
     // Дополнительные методы для удобства
-    List<Registration> findByParticipantId(Long participantId);
-    List<Registration> findBySessionId(Long sessionId);
-    List<Registration> findByEventId(Long eventId);
-    List<Registration> findByParticipantIdAndStatus(Long participantId, Registration.RegistrationStatus status);
-}
\ No newline at end of file
+    @Query("SELECT r FROM Registration r WHERE r.participant.id = :participantId")
+    List<Registration> findByParticipantId(@Param("participantId") Long participantId);
+
+    @Query("SELECT r FROM Registration r WHERE r.session.id = :sessionId")
+    List<Registration> findBySessionId(@Param("sessionId") Long sessionId);
+
+    @Query("SELECT r FROM Registration r WHERE r.event.id = :eventId")
+    List<Registration> findByEventId(@Param("eventId") Long eventId);
+
+    @Query("SELECT r FROM Registration r WHERE r.participant.id = :participantId AND r.status = :status")
+    List<Registration> findByParticipantIdAndStatus(@Param("participantId") Long participantId,
+                                                    @Param("status") Registration.RegistrationStatus status);
+
+    // Keyset-пагинация (KeysetPages): строки списка выбираются сразу в DTO, без загрузки сущностей
+    @Query("SELECT new com.example.demo.dto.RegistrationSummaryDTO(r.id, r.registrationDate, r.status, " +
+            "r.waitlistPriority, r.waitlistedAt, r.participant.id, r.session.id, r.event.id) FROM Registration r " +
+            "WHERE r.id > :afterId ORDER BY r.id")
+    List<RegistrationSummaryDTO> findSummaries(@Param("afterId") Long afterId, Limit limit);
+
+    @Query("SELECT new com.example.demo.dto.RegistrationSummaryDTO(r.id, r.registrationDate, r.status, " +
+            "r.waitlistPriority, r.waitlistedAt, r.participant.id, r.session.id, r.event.id) FROM Registration r " +
+            "WHERE r.session.id = :sessionId AND r.id > :afterId ORDER BY r.id")
+    List<RegistrationSummaryDTO> findSummariesBySessionId(@Param("sessionId") Long sessionId,
+                                                          @Param("afterId") Long afterId, Limit limit);
+
+    @Query("SELECT new com.example.demo.dto.RegistrationSummaryDTO(r.id, r.registrationDate, r.status, " +
+            "r.waitlistPriority, r.waitlistedAt, r.participant.id, r.session.id, r.event.id) FROM Registration r " +
+            "WHERE r.participant.id = :participantId AND r.id > :afterId ORDER BY r.id")
+    List<RegistrationSummaryDTO> findSummariesByParticipantId(@Param("participantId") Long participantId,
+                                                              @Param("afterId") Long afterId, Limit limit);
+
+    // Потоковая выгрузка (RegistrationExportService): строки читаются курсором порциями
+    // по fetch size и не накапливаются ни в памяти, ни в контексте персистентности
+    String EXPORT_SELECT = "SELECT new com.example.demo.dto.RegistrationExportDTO(r.id, r.registrationDate, r.status, " +
+            "r.waitlistPriority, e.id, e.name, s.id, s.title, p.id, p.firstName, p.lastName, p.email, p.company) " +
+            "FROM Registration r JOIN r.participant p LEFT JOIN r.event e LEFT JOIN r.session s ";
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query(EXPORT_SELECT + "ORDER BY r.id")
+    Stream<RegistrationExportDTO> streamExport();
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query(EXPORT_SELECT + "WHERE r.event.id = :eventId ORDER BY r.id")
+    Stream<RegistrationExportDTO> streamExportByEventId(@Param("eventId") Long eventId);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query(EXPORT_SELECT + "WHERE r.session.id = :sessionId ORDER BY r.id")
+    Stream<RegistrationExportDTO> streamExportBySessionId(@Param("sessionId") Long sessionId);
+
+    // [participantId, eventId] активных регистраций на события
+    @Query("SELECT r.participant.id, r.event.id FROM Registration r " +
+            "WHERE r.session IS NULL " +
+            "AND r.participant.id IN :participantIds " +
+            "AND r.event.id IN :eventIds " +
+            "AND r.status <> com.example.demo.model.Registration.RegistrationStatus.CANCELLED")
+    List<Object[]> findEventRegistrationPairs(@Param("participantIds") Collection<Long> participantIds,
+                                              @Param("eventIds") Collection<Long> eventIds);
+
+    // Пакетные выборки для массовой регистрации: [id, participantId, sessionId]
+    @Query("SELECT r.id, r.participant.id, r.session.id FROM Registration r " +
+            "WHERE r.participant.id IN :participantIds AND r.session.id IN :sessionIds")
+    List<Object[]> findIdsByParticipantsAndSessions(@Param("participantIds") Collection<Long> participantIds,
+                                                    @Param("sessionIds") Collection<Long> sessionIds);
+
+    // [participantId, sessionId, startTime, endTime] действующих записей на сессии
+    @PrimaryRead
+    @Query("SELECT r.participant.id, s.id, s.startTime, s.endTime FROM Registration r " +
+            "JOIN r.session s " +
+            "WHERE r.status NOT IN (com.example.demo.model.Registration.RegistrationStatus.CANCELLED, " +
+            "com.example.demo.model.Registration.RegistrationStatus.WAITLISTED) " +
+            "AND s.status <> com.example.demo.model.Session.SessionStatus.CANCELLED")
+    List<Object[]> findActiveSessionBookings();
+
+    // То же для одной сессии
+    @PrimaryRead
+    @Query("SELECT r.participant.id, s.id, s.startTime, s.endTime FROM Registration r " +
+            "JOIN r.session s " +
+            "WHERE s.id = :sessionId " +
+            "AND r.status NOT IN (com.example.demo.model.Registration.RegistrationStatus.CANCELLED, " +
+            "com.example.demo.model.Registration.RegistrationStatus.WAITLISTED) " +
+            "AND s.status <> com.example.demo.model.Session.SessionStatus.CANCELLED")
+    List<Object[]> findActiveSessionBookingsBySessionId(@Param("sessionId") Long sessionId);
+
+    // [id, participantId, sessionId, waitlistPriority, waitlistedAt] листа ожидания всех сессий
+    @PrimaryRead
+    @Query("SELECT r.id, r.participant.id, r.session.id, r.waitlistPriority, r.waitlistedAt FROM Registration r " +
+            "WHERE r.session IS NOT NULL " +
+            "AND r.status = com.example.demo.model.Registration.RegistrationStatus.WAITLISTED")
+    List<Object[]> findWaitlistEntries();
+
+    // То же для одной сессии
+    @PrimaryRead
+    @Query("SELECT r.id, r.participant.id, r.session.id, r.waitlistPriority, r.waitlistedAt FROM Registration r " +
+            "WHERE r.session.id = :sessionId " +
+            "AND r.status = com.example.demo.model.Registration.RegistrationStatus.WAITLISTED")
+    List<Object[]> findWaitlistEntriesBySessionId(@Param("sessionId") Long sessionId);
+
+    // Блокирует регистрацию на время перевода из листа ожидания: очередь этой сессии
+    // могут одновременно продвигать несколько узлов
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT r FROM Registration r WHERE r.id = :id")
+    Optional<Registration> findByIdForUpdate(@Param("id") Long id);
+
+    @Query("SELECT r.event.id FROM Registration r WHERE r.id = :id")
+    Optional<Long> findEventIdById(@Param("id") Long id);
+}
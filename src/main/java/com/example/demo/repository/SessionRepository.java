@@ -1,29 +1,129 @@
 package com.example.demo.repository;
 
+import com.example.demo.config.PrimaryRead;
+import com.example.demo.dto.SessionSummaryDTO;
 import com.example.demo.model.Session;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
-public interface SessionRepository extends JpaRepository<Session, Long> {
+public interface SessionRepository extends JpaRepository<Session, Long>, JpaSpecificationExecutor<Session> {
 
-    List<Session> findByEventId(Long eventId);
+    // Программа события - в кэше запросов, сами сессии - в кэше второго уровня
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    @Query("SELECT s FROM Session s WHERE s.event.id = :eventId")
+    List<Session> findByEventId(@Param("eventId") Long eventId);
 
-    List<Session> findBySpeakerId(Long speakerId);
+    // Списки сессий отдаются вместе с событием и спикером, поэтому связи загружаются тем же запросом
+    @Query("SELECT s FROM Session s JOIN FETCH s.event JOIN FETCH s.speaker sp " +
+            "WHERE sp.id = :speakerId ORDER BY s.startTime")
+    List<Session> findBySpeakerId(@Param("speakerId") Long speakerId);
 
-    @Query("SELECT s FROM Session s WHERE s.startTime >= :start AND s.endTime <= :end")
+    @Query("SELECT s FROM Session s JOIN FETCH s.event JOIN FETCH s.speaker sp " +
+            "WHERE sp.id = :speakerId AND s.startTime > :after ORDER BY s.startTime")
+    List<Session> findBySpeakerIdStartingAfter(@Param("speakerId") Long speakerId,
+                                               @Param("after") LocalDateTime after);
+
+    // Keyset-пагинация (KeysetPages): строки списка выбираются сразу в DTO, без загрузки сущностей
+    @Query("SELECT new com.example.demo.dto.SessionSummaryDTO(s.id, s.title, s.description, s.startTime, s.endTime, " +
+            "s.maxCapacity, s.currentParticipants, s.roomNumber, s.type, s.status, s.requiresRegistration, " +
+            "s.event.id, s.speaker.id, s.version) FROM Session s " +
+            "WHERE s.id > :afterId ORDER BY s.id")
+    List<SessionSummaryDTO> findSummaries(@Param("afterId") Long afterId, Limit limit);
+
+    @Query("SELECT new com.example.demo.dto.SessionSummaryDTO(s.id, s.title, s.description, s.startTime, s.endTime, " +
+            "s.maxCapacity, s.currentParticipants, s.roomNumber, s.type, s.status, s.requiresRegistration, " +
+            "s.event.id, s.speaker.id, s.version) FROM Session s " +
+            "WHERE s.event.id = :eventId AND s.id > :afterId ORDER BY s.id")
+    List<SessionSummaryDTO> findSummariesByEventId(@Param("eventId") Long eventId,
+                                                   @Param("afterId") Long afterId, Limit limit);
+
+    @Query("SELECT new com.example.demo.dto.SessionSummaryDTO(s.id, s.title, s.description, s.startTime, s.endTime, " +
+            "s.maxCapacity, s.currentParticipants, s.roomNumber, s.type, s.status, s.requiresRegistration, " +
+            "s.event.id, s.speaker.id, s.version) FROM Session s " +
+            "WHERE s.speaker.id = :speakerId AND s.id > :afterId ORDER BY s.id")
+    List<SessionSummaryDTO> findSummariesBySpeakerId(@Param("speakerId") Long speakerId,
+                                                     @Param("afterId") Long afterId, Limit limit);
+
+    // Программа события (AgendaSnapshotService): сессии вместе со спикерами одним запросом
+    @Query("SELECT s FROM Session s LEFT JOIN FETCH s.speaker WHERE s.event.id = :eventId ORDER BY s.startTime, s.id")
+    List<Session> findAgendaByEventId(@Param("eventId") Long eventId);
+
+    @Query("SELECT DISTINCT s.event.id FROM Session s WHERE s.speaker.id = :speakerId")
+    List<Long> findEventIdsBySpeakerId(@Param("speakerId") Long speakerId);
+
+    @Query("SELECT s FROM Session s JOIN FETCH s.event LEFT JOIN FETCH s.speaker " +
+            "WHERE s.startTime >= :start AND s.endTime <= :end ORDER BY s.startTime")
     List<Session> findSessionsBetweenDates(@Param("start") LocalDateTime start,
                                            @Param("end") LocalDateTime end);
 
-    @Query("SELECT s FROM Session s WHERE s.maxCapacity IS NULL OR s.currentParticipants < s.maxCapacity")
+    @Query("SELECT s FROM Session s JOIN FETCH s.event LEFT JOIN FETCH s.speaker " +
+            "WHERE s.maxCapacity IS NULL OR s.currentParticipants < s.maxCapacity")
     List<Session> findSessionsWithAvailableSeats();
 
     @Query("SELECT s FROM Session s WHERE s.event.id = :eventId AND s.startTime >= :startTime AND s.endTime <= :endTime")
     List<Session> findByEventIdAndTimeRange(@Param("eventId") Long eventId,
                                             @Param("startTime") LocalDateTime startTime,
                                             @Param("endTime") LocalDateTime endTime);
+
+    // Версии для ETag (ResourceVersionService): сессия отдается вместе с событием и спикером
+    interface VersionView {
+        Long getVersion();
+        Integer getCurrentParticipants();
+        LocalDateTime getEndTime();
+        Long getEventVersion();
+        Integer getEventParticipants();
+        Long getSpeakerVersion();
+    }
+
+    @Query("SELECT s.version AS version, s.currentParticipants AS currentParticipants, s.endTime AS endTime, " +
+            "e.version AS eventVersion, e.currentParticipants AS eventParticipants, sp.version AS speakerVersion " +
+            "FROM Session s JOIN s.event e LEFT JOIN s.speaker sp WHERE s.id = :id")
+    Optional<VersionView> findVersionById(@Param("id") Long id);
+
+    // Строки страницы findSummariesByEventId без остальных колонок
+    interface RowVersionView {
+        Long getId();
+        Long getVersion();
+        Integer getCurrentParticipants();
+    }
+
+    @Query("SELECT s.id AS id, s.version AS version, s.currentParticipants AS currentParticipants FROM Session s " +
+            "WHERE s.event.id = :eventId AND s.id > :afterId ORDER BY s.id")
+    List<RowVersionView> findRowVersionsByEventId(@Param("eventId") Long eventId,
+                                                  @Param("afterId") Long afterId, Limit limit);
+
+    // Проекция для in-memory учета мест
+    interface SeatView {
+        Long getId();
+        Integer getMaxCapacity();
+        Integer getCurrentParticipants();
+        Long getEventId();
+    }
+
+    @PrimaryRead
+    @Query("SELECT s.id AS id, s.maxCapacity AS maxCapacity, s.currentParticipants AS currentParticipants, s.event.id AS eventId FROM Session s")
+    List<SeatView> findAllSeatViews();
+
+    @PrimaryRead
+    @Query("SELECT s.id AS id, s.maxCapacity AS maxCapacity, s.currentParticipants AS currentParticipants, s.event.id AS eventId FROM Session s WHERE s.id = :id")
+    Optional<SeatView> findSeatViewById(@Param("id") Long id);
+
+    // Блокирует сессии и их события на время массовой регистрации
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM Session s JOIN FETCH s.event WHERE s.id IN :ids")
+    List<Session> findAllByIdForUpdate(@Param("ids") Collection<Long> ids);
 }
\ No newline at end of file
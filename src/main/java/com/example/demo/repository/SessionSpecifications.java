@@ -0,0 +1,55 @@
+package com.example.demo.repository;
+
+import com.example.demo.dto.SessionFilterDTO;
+import com.example.demo.model.Session;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDateTime;
+
+// Условия динамического фильтра сессий. Каждое условие - предикат SQL по колонке
+// с индексом (db/migration, V2 и V3); для незаданного параметра условие не добавляется
+public final class SessionSpecifications {
+
+    private SessionSpecifications() {
+    }
+
+    public static Specification<Session> matching(SessionFilterDTO filter) {
+        return Specification.allOf(
+                inEvent(filter.getEventId()),
+                bySpeaker(filter.getSpeakerId()),
+                hasStatus(filter.getStatus()),
+                hasType(filter.getType()),
+                startsBetween(filter.getFrom(), filter.getTo()));
+    }
+
+    public static Specification<Session> inEvent(Long eventId) {
+        return eventId == null ? null : (root, query, cb) -> cb.equal(root.get("event").get("id"), eventId);
+    }
+
+    public static Specification<Session> bySpeaker(Long speakerId) {
+        return speakerId == null ? null : (root, query, cb) -> cb.equal(root.get("speaker").get("id"), speakerId);
+    }
+
+    public static Specification<Session> hasStatus(Session.SessionStatus status) {
+        return status == null ? null : (root, query, cb) -> cb.equal(root.get("status"), status);
+    }
+
+    public static Specification<Session> hasType(Session.SessionType type) {
+        return type == null ? null : (root, query, cb) -> cb.equal(root.get("type"), type);
+    }
+
+    public static Specification<Session> startsBetween(LocalDateTime from, LocalDateTime to) {
+        if (from == null && to == null) {
+            return null;
+        }
+        return (root, query, cb) -> {
+            if (from == null) {
+                return cb.lessThanOrEqualTo(root.get("startTime"), to);
+            }
+            if (to == null) {
+                return cb.greaterThanOrEqualTo(root.get("startTime"), from);
+            }
+            return cb.between(root.get("startTime"), from, to);
+        };
+    }
+}
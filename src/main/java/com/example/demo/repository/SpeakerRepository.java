@@ -1,19 +1,49 @@
 package com.example.demo.repository;
 
 import com.example.demo.model.Speaker;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface SpeakerRepository extends JpaRepository<Speaker, Long> {
+public interface SpeakerRepository extends JpaRepository<Speaker, Long>, JpaSpecificationExecutor<Speaker> {
+
+    // Keyset-пагинация (KeysetPages)
+    Window<Speaker> findAllBy(ScrollPosition position, Limit limit, Sort sort);
 
     Optional<Speaker> findByEmail(String email);
 
+    // Версия спикера для ETag (ResourceVersionService)
+    @Query("SELECT sp.version FROM Speaker sp WHERE sp.id = :id")
+    Optional<Long> findVersionById(@Param("id") Long id);
+
+    // Выборки для витрины спикеров - в кэше запросов
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     List<Speaker> findByCompany(String company);
 
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     List<Speaker> findByIsFeaturedTrue();
 
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     List<Speaker> findBySpeakerLevel(Speaker.SpeakerLevel level);
+
+    List<Speaker> findByAverageRatingGreaterThanEqualOrderByAverageRatingDesc(Double minRating);
+
+    // Спикеры без действующих сессий, пересекающихся с [start, end): anti-join по idx_sessions_speaker_start
+    @Query("SELECT sp FROM Speaker sp WHERE NOT EXISTS (SELECT 1 FROM Session s WHERE s.speaker = sp " +
+            "AND s.status <> com.example.demo.model.Session.SessionStatus.CANCELLED " +
+            "AND s.startTime < :end AND s.endTime > :start) ORDER BY sp.id")
+    List<Speaker> findAvailable(@Param("start") LocalDateTime start, @Param("end") LocalDateTime end);
 }
\ No newline at end of file
@@ -0,0 +1,52 @@
+package com.example.demo.repository;
+
+import com.example.demo.dto.SpeakerFilterDTO;
+import com.example.demo.model.Speaker;
+import org.springframework.data.jpa.domain.Specification;
+
+// Условия динамического фильтра спикеров. Каждое условие - предикат SQL по колонке
+// с индексом (db/migration, V3); для незаданного параметра условие не добавляется
+public final class SpeakerSpecifications {
+
+    private SpeakerSpecifications() {
+    }
+
+    public static Specification<Speaker> matching(SpeakerFilterDTO filter) {
+        return Specification.allOf(
+                hasLevel(filter.getLevel()),
+                ratingBetween(filter.getMinRating(), filter.getMaxRating()),
+                hasCompany(filter.getCompany()),
+                isFeatured(filter.getFeatured()));
+    }
+
+    public static Specification<Speaker> hasLevel(Speaker.SpeakerLevel level) {
+        return level == null ? null : (root, query, cb) -> cb.equal(root.get("speakerLevel"), level);
+    }
+
+    public static Specification<Speaker> ratingBetween(Double min, Double max) {
+        if (min == null && max == null) {
+            return null;
+        }
+        return (root, query, cb) -> {
+            if (min == null) {
+                return cb.le(root.get("averageRating"), max);
+            }
+            if (max == null) {
+                return cb.ge(root.get("averageRating"), min);
+            }
+            return cb.between(root.get("averageRating"), min, max);
+        };
+    }
+
+    public static Specification<Speaker> hasCompany(String company) {
+        return company == null ? null : (root, query, cb) -> cb.equal(root.get("company"), company);
+    }
+
+    // Флаг - литералом, а не параметром: так условие совпадает с условием частичного индекса
+    public static Specification<Speaker> isFeatured(Boolean featured) {
+        if (featured == null) {
+            return null;
+        }
+        return (root, query, cb) -> featured ? cb.isTrue(root.get("isFeatured")) : cb.isFalse(root.get("isFeatured"));
+    }
+}
@@ -0,0 +1,160 @@
+package com.example.demo.service;
+
+import com.example.demo.exception.AdmissionRejectedException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+// Контроль допуска для регистраций: ограничивает очередь на каждое событие
+// и число одновременных операций с БД. Запросы обслуживаются виртуальными
+// потоками, поэтому ожидание слота не занимает потоки Tomcat и соединения Hikari.
+// Лишняя нагрузка отсекается сразу с подсказкой Retry-After.
+@Service
+@Slf4j
+public class AdmissionControlService {
+    private final Semaphore dbPermits;
+    private final int maxConcurrent;
+    private final int maxQueuePerEvent;
+    private final long maxWaitMillis;
+    private final long minRetryAfterSeconds;
+
+    private final SeatInventoryService seatInventoryService;
+    private final EventMutationDispatcher eventMutationDispatcher;
+    private final Timer waitTimer;
+    private final Timer serviceTimer;
+    private final Counter rejectedCounter;
+    private final MeterRegistry meterRegistry;
+    // Глубина очереди каждого события, включая выполняющиеся запросы. Событие без
+    // запросов удаляется из карты, поэтому ее размер - число событий с нагрузкой.
+    private final Map<Long, Integer> eventQueues = new ConcurrentHashMap<>();
+    // Метрика глубины очереди события живет, пока у события есть запросы: регистрируется
+    // и снимается под блокировкой его ключа в eventQueues
+    private final Map<Long, Gauge> depthGauges = new ConcurrentHashMap<>();
+
+    public AdmissionControlService(SeatInventoryService seatInventoryService,
+                                   EventMutationDispatcher eventMutationDispatcher,
+                                   MeterRegistry meterRegistry,
+                                   @Value("${conference.admission.max-concurrent:8}") int maxConcurrent,
+                                   @Value("${conference.admission.max-queue-per-event:200}") int maxQueuePerEvent,
+                                   @Value("${conference.admission.max-wait-ms:2000}") long maxWaitMillis,
+                                   @Value("${conference.admission.retry-after-seconds:1}") long minRetryAfterSeconds) {
+        this.seatInventoryService = seatInventoryService;
+        this.eventMutationDispatcher = eventMutationDispatcher;
+        this.maxConcurrent = maxConcurrent;
+        this.maxQueuePerEvent = maxQueuePerEvent;
+        this.maxWaitMillis = maxWaitMillis;
+        this.minRetryAfterSeconds = minRetryAfterSeconds;
+        this.dbPermits = new Semaphore(maxConcurrent, true);
+        this.meterRegistry = meterRegistry;
+
+        this.waitTimer = Timer.builder("conference.admission.wait")
+                .description("Время ожидания слота работы с БД")
+                .register(meterRegistry);
+        this.serviceTimer = Timer.builder("conference.admission.service")
+                .description("Время выполнения допущенной операции")
+                .register(meterRegistry);
+        this.rejectedCounter = Counter.builder("conference.admission.rejected")
+                .description("Отклоненные запросы")
+                .register(meterRegistry);
+        Gauge.builder("conference.admission.waiting", dbPermits, Semaphore::getQueueLength)
+                .description("Запросы, ожидающие слота работы с БД")
+                .register(meterRegistry);
+        Gauge.builder("conference.admission.in-flight", dbPermits, permits -> maxConcurrent - permits.availablePermits())
+                .description("Операции, выполняющиеся с БД")
+                .register(meterRegistry);
+        // Сводные метрики по всем событиям; метрики отдельных событий есть только у событий с нагрузкой
+        Gauge.builder("conference.admission.queue.events", eventQueues, Map::size)
+                .description("События, у которых есть запросы в очереди")
+                .register(meterRegistry);
+        Gauge.builder("conference.admission.queue.max-depth", eventQueues,
+                        queues -> queues.values().stream().mapToInt(Integer::intValue).max().orElse(0))
+                .description("Самая длинная очередь события, включая выполняющиеся запросы")
+                .register(meterRegistry);
+    }
+
+    // Выполняет операцию регистрации на событие с учетом очереди события и общего лимита БД.
+    // В режиме акторов слот БД занимается уже в акторе события, а не в очереди к нему.
+    public <T> T admit(Long eventId, Supplier<T> action) {
+        int depth = eventQueues.compute(eventId, (id, current) -> {
+            if (current == null) {
+                depthGauges.put(id, Gauge.builder("conference.admission.queue.depth", eventQueues,
+                                queues -> queues.getOrDefault(id, 0))
+                        .description("Запросы в очереди события, включая выполняющиеся")
+                        .tag("eventId", String.valueOf(id))
+                        .register(meterRegistry));
+                return 1;
+            }
+            return current + 1;
+        });
+        if (depth > maxQueuePerEvent) {
+            leaveQueue(eventId);
+            throw reject("Registration queue for event " + eventId + " is full");
+        }
+
+        try {
+            return eventMutationDispatcher.execute(eventId, () -> runWithPermit(action));
+        } finally {
+            leaveQueue(eventId);
+        }
+    }
+
+    // Последний запрос события удаляет его запись и метрику (атомарно с compute в admit)
+    private void leaveQueue(Long eventId) {
+        eventQueues.computeIfPresent(eventId, (id, depth) -> {
+            if (depth > 1) {
+                return depth - 1;
+            }
+            Gauge gauge = depthGauges.remove(id);
+            if (gauge != null) {
+                meterRegistry.remove(gauge);
+            }
+            return null;
+        });
+    }
+
+    private <T> T runWithPermit(Supplier<T> action) {
+        long waitStarted = System.nanoTime();
+        boolean acquired;
+        try {
+            acquired = dbPermits.tryAcquire(maxWaitMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw reject("Registration was interrupted while waiting in queue");
+        }
+        waitTimer.record(System.nanoTime() - waitStarted, TimeUnit.NANOSECONDS);
+        if (!acquired) {
+            throw reject("Registration service is busy, try again later");
+        }
+
+        try {
+            return serviceTimer.record(action);
+        } finally {
+            dbPermits.release();
+        }
+    }
+
+    // Регистрация на сессию стоит в очереди события этой сессии
+    public <T> T admitSession(Long sessionId, Supplier<T> action) {
+        return admit(seatInventoryService.getEventId(sessionId), action);
+    }
+
+    // Оценка времени, за которое рассосется текущая очередь
+    private AdmissionRejectedException reject(String message) {
+        rejectedCounter.increment();
+        double meanServiceSeconds = serviceTimer.mean(TimeUnit.SECONDS);
+        long estimate = (long) Math.ceil(dbPermits.getQueueLength() * meanServiceSeconds / maxConcurrent);
+        long retryAfter = Math.max(minRetryAfterSeconds, estimate);
+        log.debug("Admission rejected: {} (retry after {}s)", message, retryAfter);
+        return new AdmissionRejectedException(message, retryAfter);
+    }
+}
@@ -0,0 +1,6 @@
+package com.example.demo.service;
+
+// Доменное событие: изменилась программа события (его сессии или их спикеры).
+// Публикуется внутри транзакции изменения.
+public record AgendaChanged(Long eventId) {
+}
@@ -0,0 +1,129 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.AgendaDTO;
+import com.example.demo.dto.AgendaSessionDTO;
+import com.example.demo.dto.AgendaSpeakerDTO;
+import com.example.demo.exception.ResourceNotFoundException;
+import com.example.demo.model.Session;
+import com.example.demo.model.Speaker;
+import com.example.demo.repository.EventRepository;
+import com.example.demo.repository.SessionRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.DigestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+// Готовые снимки публичной программы событий: JSON сериализуется и сжимается gzip один
+// раз и отдается как есть, без Hibernate и Jackson на каждый запрос. Снимок события
+// пересобирается при следующем запросе после AgendaChanged - изменения его сессий
+// или их спикеров; регистрации программу не меняют.
+@Service
+public class AgendaSnapshotService {
+
+    // Неизменяемый снимок: тело хранится только в сжатом виде
+    public record AgendaSnapshot(byte[] gzipped, String etag) {
+
+        public byte[] uncompressed() {
+            try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(gzipped))) {
+                return in.readAllBytes();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    private final EventRepository eventRepository;
+    private final SessionRepository sessionRepository;
+    private final ObjectMapper objectMapper;
+    private final Cache<Long, AgendaSnapshot> snapshots;
+    private final TransactionTemplate loadTransaction;
+    private final Timer buildTimer;
+
+    public AgendaSnapshotService(EventRepository eventRepository,
+                                 SessionRepository sessionRepository,
+                                 ObjectMapper objectMapper,
+                                 PlatformTransactionManager transactionManager,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${conference.agenda-snapshots.max-size:1000}") long maxSize) {
+        this.eventRepository = eventRepository;
+        this.sessionRepository = sessionRepository;
+        this.objectMapper = objectMapper;
+        this.snapshots = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, snapshots, "agenda-snapshots");
+        this.buildTimer = Timer.builder("conference.agenda-snapshots.build")
+                .description("Время сборки снимка программы события")
+                .register(meterRegistry);
+
+        // Как и в EventListingCache: снимок без TTL, поэтому собирается только по данным primary
+        this.loadTransaction = new TransactionTemplate(transactionManager);
+        this.loadTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    public AgendaSnapshot getSnapshot(Long eventId) {
+        return snapshots.get(eventId, key -> buildTimer.record(() -> loadTransaction.execute(status -> build(key))));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAgendaChanged(AgendaChanged change) {
+        // invalidate ждет сборку того же снимка, начатую до коммита, и отбрасывает ее результат
+        snapshots.invalidate(change.eventId());
+    }
+
+    @EventListener
+    public void onCacheReset(CacheReset reset) {
+        snapshots.invalidateAll();
+    }
+
+    private AgendaSnapshot build(Long eventId) {
+        if (!eventRepository.existsById(eventId)) {
+            throw new ResourceNotFoundException("Event", "id", eventId);
+        }
+        List<AgendaSessionDTO> sessions = sessionRepository.findAgendaByEventId(eventId).stream()
+                .map(AgendaSnapshotService::toAgendaSession)
+                .toList();
+        AgendaDTO agenda = new AgendaDTO(eventId, sessions);
+
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(agenda);
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream(json.length / 4 + 64);
+            try (GZIPOutputStream gzip = new GZIPOutputStream(buffer)) {
+                gzip.write(json);
+            }
+            // Тег слабый: одно и то же содержимое отдается и сжатым, и несжатым
+            return new AgendaSnapshot(buffer.toByteArray(), "W/\"" + DigestUtils.md5DigestAsHex(json) + "\"");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static AgendaSessionDTO toAgendaSession(Session session) {
+        Speaker speaker = session.getSpeaker();
+        AgendaSpeakerDTO speakerSummary = speaker == null ? null : new AgendaSpeakerDTO(speaker.getId(),
+                speaker.getName(), speaker.getCompany(), speaker.getSpecialization(), speaker.getPhotoUrl(),
+                speaker.getSpeakerLevel());
+        return new AgendaSessionDTO(session.getId(), session.getTitle(), session.getDescription(),
+                session.getStartTime(), session.getEndTime(), session.getRoomNumber(), session.getType(),
+                session.getStatus(), speakerSummary);
+    }
+}
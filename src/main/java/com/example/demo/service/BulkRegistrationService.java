@@ -0,0 +1,179 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.BulkRegistrationRequestDTO;
+import com.example.demo.dto.BulkRegistrationResultDTO;
+import com.example.demo.dto.BulkRegistrationRowDTO;
+import com.example.demo.model.Event;
+import com.example.demo.model.Registration;
+import com.example.demo.model.Session;
+import com.example.demo.repository.EventRepository;
+import com.example.demo.repository.ParticipantRepository;
+import com.example.demo.repository.RegistrationRepository;
+import com.example.demo.repository.SessionRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// Массовая регистрация: проверки выполняются несколькими выборками на весь пакет
+// и по индексу расписаний, вставка - JDBC batch в одной транзакции
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class BulkRegistrationService {
+    private static final String INSERT_REGISTRATION_SQL =
+            "INSERT INTO registrations (participant_id, session_id, event_id, status, registration_date) " +
+                    "VALUES (?, ?, ?, ?, ?)";
+
+    private final RegistrationRepository registrationRepository;
+    private final ParticipantRepository participantRepository;
+    private final SessionRepository sessionRepository;
+    private final EventRepository eventRepository;
+    private final SeatInventoryService seatInventoryService;
+    private final ScheduleIndexService scheduleIndexService;
+    private final ParticipantCounterService participantCounterService;
+    private final JdbcTemplate jdbcTemplate;
+
+    public record RegistrationPair(Long participantId, Long sessionId) {
+    }
+
+    @Transactional
+    public BulkRegistrationResultDTO registerBulk(BulkRegistrationRequestDTO request) {
+        List<RegistrationPair> pairs = new ArrayList<>();
+        for (Long participantId : new LinkedHashSet<>(request.getParticipantIds())) {
+            for (Long sessionId : new LinkedHashSet<>(request.getSessionIds())) {
+                pairs.add(new RegistrationPair(participantId, sessionId));
+            }
+        }
+        return new BulkRegistrationResultDTO(registerPairs(pairs));
+    }
+
+    // Строки результата идут в том же порядке, что и пары
+    @Transactional
+    public List<BulkRegistrationRowDTO> registerPairs(List<RegistrationPair> pairs) {
+        Set<Long> participantIds = pairs.stream().map(RegistrationPair::participantId).collect(Collectors.toSet());
+        Set<Long> sessionIds = pairs.stream().map(RegistrationPair::sessionId).collect(Collectors.toSet());
+
+        Set<Long> existingParticipants = new HashSet<>(participantRepository.findExistingIds(participantIds));
+        // Счетчики событий увеличиваются без условия, поэтому их строки заблокированы до коммита:
+        // параллельная регистрация не займет места между проверкой и увеличением
+        Map<Long, Event> events = eventRepository.findAllBySessionIdsForUpdate(sessionIds).stream()
+                .collect(Collectors.toMap(Event::getId, Function.identity()));
+        Map<Long, Session> sessions = sessionRepository.findAllByIdForUpdate(sessionIds).stream()
+                .collect(Collectors.toMap(Session::getId, Function.identity()));
+
+        Set<List<Long>> registeredSessions = new HashSet<>();
+        Set<List<Long>> registeredEvents = new HashSet<>();
+        Map<Long, Integer> sessionSeatsLeft = new HashMap<>();
+        Map<Long, Integer> eventSpotsLeft = new HashMap<>();
+
+        if (!existingParticipants.isEmpty() && !sessions.isEmpty()) {
+            registrationRepository.findIdsByParticipantsAndSessions(existingParticipants, sessions.keySet())
+                    .forEach(row -> registeredSessions.add(List.of((Long) row[1], (Long) row[2])));
+
+            Set<Long> eventIds = sessions.values().stream().map(s -> s.getEvent().getId()).collect(Collectors.toSet());
+            registrationRepository.findEventRegistrationPairs(existingParticipants, eventIds)
+                    .forEach(row -> registeredEvents.add(List.of((Long) row[0], (Long) row[1])));
+        }
+        for (Session session : sessions.values()) {
+            sessionSeatsLeft.put(session.getId(), seatsLeft(session.getMaxCapacity(), session.getCurrentParticipants()));
+            Event event = events.getOrDefault(session.getEvent().getId(), session.getEvent());
+            eventSpotsLeft.putIfAbsent(event.getId(), seatsLeft(event.getMaxParticipants(), event.getCurrentParticipants()));
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        List<Object[]> inserts = new ArrayList<>();
+        Map<Long, Integer> sessionIncrements = new HashMap<>();
+        Map<Long, Integer> eventIncrements = new HashMap<>();
+        List<BulkRegistrationRowDTO> rows = new ArrayList<>(pairs.size());
+
+        for (RegistrationPair pair : pairs) {
+            Long participantId = pair.participantId();
+            Long sessionId = pair.sessionId();
+            Session session = sessions.get(sessionId);
+
+            String error = null;
+            if (!existingParticipants.contains(participantId)) {
+                error = "Participant not found with id: " + participantId;
+            } else if (session == null) {
+                error = "Session not found with id: " + sessionId;
+            } else if (!session.getEvent().isRegistrationOpen()) {
+                error = "Registration for this event is closed";
+            } else if (registeredSessions.contains(List.of(participantId, sessionId))) {
+                error = "Participant already registered for this session";
+            } else if (sessionSeatsLeft.get(sessionId) <= 0) {
+                error = "Session is full";
+            }
+
+            Long eventId = session != null ? session.getEvent().getId() : null;
+            boolean needsEventRegistration = error == null
+                    && !registeredEvents.contains(List.of(participantId, eventId));
+            if (needsEventRegistration && eventSpotsLeft.get(eventId) <= 0) {
+                error = "Event is full";
+            }
+
+            // Пересечение проверяется последним: успешная проверка сразу занимает интервал
+            if (error == null && !scheduleIndexService.tryBookParticipant(participantId, sessionId,
+                    session.getStartTime(), session.getEndTime())) {
+                error = "Participant has time conflict with another session";
+            }
+
+            if (error != null) {
+                rows.add(new BulkRegistrationRowDTO(participantId, sessionId, false, null, error));
+                continue;
+            }
+
+            if (needsEventRegistration) {
+                inserts.add(new Object[]{participantId, null, eventId, Registration.RegistrationStatus.CONFIRMED.name(),
+                        Timestamp.valueOf(now)});
+                registeredEvents.add(List.of(participantId, eventId));
+                eventSpotsLeft.merge(eventId, -1, Integer::sum);
+                eventIncrements.merge(eventId, 1, Integer::sum);
+            }
+            inserts.add(new Object[]{participantId, sessionId, eventId, Registration.RegistrationStatus.CONFIRMED.name(),
+                    Timestamp.valueOf(now)});
+            registeredSessions.add(List.of(participantId, sessionId));
+            sessionSeatsLeft.merge(sessionId, -1, Integer::sum);
+            sessionIncrements.merge(sessionId, 1, Integer::sum);
+            rows.add(new BulkRegistrationRowDTO(participantId, sessionId, true, null, null));
+        }
+
+        if (inserts.isEmpty()) {
+            return rows;
+        }
+
+        jdbcTemplate.batchUpdate(INSERT_REGISTRATION_SQL, inserts);
+        participantCounterService.addSessionParticipants(sessionIncrements);
+        participantCounterService.addEventParticipants(eventIncrements);
+
+        // Идентификаторы новых регистраций одной выборкой
+        Map<List<Long>, Long> registrationIds = new HashMap<>();
+        registrationRepository.findIdsByParticipantsAndSessions(existingParticipants, sessionIncrements.keySet())
+                .forEach(row -> registrationIds.put(List.of((Long) row[1], (Long) row[2]), (Long) row[0]));
+        rows.stream()
+                .filter(BulkRegistrationRowDTO::getSuccess)
+                .forEach(row -> row.setRegistrationId(
+                        registrationIds.get(List.of(row.getParticipantId(), row.getSessionId()))));
+
+        Set<Long> changedSessions = sessionIncrements.keySet();
+        TransactionCallbacks.afterCommit(() -> changedSessions.forEach(seatInventoryService::resync));
+
+        log.info("Bulk registration: {} of {} rows registered", sessionIncrements.values().stream()
+                .mapToInt(Integer::intValue).sum(), pairs.size());
+        return rows;
+    }
+
+    private static int seatsLeft(Integer capacity, Integer current) {
+        if (capacity == null) {
+            return Integer.MAX_VALUE;
+        }
+        return capacity - (current != null ? current : 0);
+    }
+}
@@ -0,0 +1,310 @@
+package com.example.demo.service;
+
+import com.example.demo.model.Event;
+import com.example.demo.model.Session;
+import com.example.demo.model.Speaker;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// Согласованность локальных кэшей между узлами (PostgreSQL LISTEN/NOTIFY).
+// Доменные события изменений копятся в транзакции и перед коммитом отправляются
+// одним pg_notify на ее соединении: PostgreSQL доставляет уведомление только после
+// коммита, а откат его отбрасывает. Каждый узел слушает канал отдельным соединением
+// и сбрасывает у себя кэш второго уровня, списки событий и снимки программ. После
+// (пере)подключения уведомления за время разрыва потеряны, поэтому кэши сбрасываются целиком.
+// Изменения только регистраций (счетчики мест, листы ожидания) идут на каждой регистрации
+// и в коммит не попадают: после коммита они копятся на узле и раз в coalesce-interval
+// уходят отдельным NOTIFY. Получатель перечитывает из БД листы ожидания, счетчики мест
+// и индекс расписаний этих сессий (SessionRegistrationsChanged).
+// Поток LISTEN только принимает уведомления: сброс кэшей и реакции на них (продвижение
+// листов ожидания и т.п.) выполняются по порядку отдельным потоком, и ошибка обработки
+// одного сообщения не рвет соединение и не вызывает полного сброса.
+@Slf4j
+@Service
+public class CacheCoherenceService {
+
+    // Предел payload NOTIFY - 8000 байт (сообщения - ASCII, символ = байт)
+    private static final int MAX_PAYLOAD_BYTES = 7900;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityCacheInvalidator cacheInvalidator;
+    private final Cache cache;
+    private final ApplicationEventPublisher eventPublisher;
+    private final DataSourceProperties dataSourceProperties;
+    private final boolean enabled;
+    private final String channel;
+    private final Duration reconnectDelay;
+    private final String nodeId = UUID.randomUUID().toString();
+    private final Counter sent;
+    private final Counter received;
+    // Изменения регистраций, зафиксированные с последней рассылки
+    private final Set<String> coalesced = ConcurrentHashMap.newKeySet();
+    // Один поток - уведомления применяются в порядке получения
+    private final ExecutorService applier = Executors.newSingleThreadExecutor(
+            Thread.ofVirtual().name("cache-coherence-apply").factory());
+
+    private volatile boolean running;
+    private Thread listener;
+
+    public CacheCoherenceService(JdbcTemplate jdbcTemplate,
+                                 EntityCacheInvalidator cacheInvalidator,
+                                 EntityManagerFactory entityManagerFactory,
+                                 ApplicationEventPublisher eventPublisher,
+                                 DataSourceProperties dataSourceProperties,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${conference.cache-coherence.enabled:true}") boolean allowed,
+                                 @Value("${conference.cache-coherence.channel:conference_cache}") String channel,
+                                 @Value("${conference.cache-coherence.reconnect-delay:5s}") Duration reconnectDelay) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.cacheInvalidator = cacheInvalidator;
+        this.cache = entityManagerFactory.unwrap(SessionFactory.class).getCache();
+        this.eventPublisher = eventPublisher;
+        this.dataSourceProperties = dataSourceProperties;
+        this.enabled = allowed && dataSourceProperties.determineUrl().startsWith("jdbc:postgresql:");
+        this.channel = channel;
+        this.reconnectDelay = reconnectDelay;
+        this.sent = Counter.builder("conference.cache-coherence.sent")
+                .description("Отправленные уведомления об изменениях")
+                .register(meterRegistry);
+        this.received = Counter.builder("conference.cache-coherence.received")
+                .description("Полученные от других узлов уведомления об изменениях")
+                .register(meterRegistry);
+        log.info("Cross-node cache coherence {}", enabled ? "enabled" : "disabled");
+    }
+
+    @EventListener
+    public void onEventChanged(EventChanged change) {
+        if (change.countersOnly()) {
+            coalesce("e:" + change.eventId());
+        } else {
+            enqueue("e:" + change.eventId());
+        }
+    }
+
+    @EventListener
+    public void onSessionChanged(SessionChanged change) {
+        if (change.eventId() == null) {
+            coalesce("r:" + change.sessionId());
+        } else {
+            enqueue("s:" + change.sessionId() + ":" + change.eventId());
+        }
+    }
+
+    @EventListener
+    public void onSpeakerChanged(SpeakerChanged change) {
+        enqueue("p:" + change.speakerId());
+    }
+
+    @EventListener
+    public void onAgendaChanged(AgendaChanged change) {
+        enqueue("a:" + change.eventId());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        running = true;
+        listener = Thread.ofVirtual().name("cache-coherence").start(this::listenLoop);
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        if (listener != null) {
+            listener.interrupt();
+        }
+        applier.shutdownNow();
+    }
+
+    // Вне транзакции событие пришло от другого узла (или изменение уже зафиксировано
+    // без транзакции) - повторно не рассылается
+    private void enqueue(String message) {
+        if (!enabled || !TransactionSynchronizationManager.isActualTransactionActive()) {
+            return;
+        }
+        @SuppressWarnings("unchecked")
+        Set<String> pending = (Set<String>) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            Set<String> messages = new LinkedHashSet<>();
+            TransactionSynchronizationManager.bindResource(this, messages);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    publish(messages);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(CacheCoherenceService.this);
+                }
+            });
+            pending = messages;
+        }
+        pending.add(message);
+    }
+
+    private void coalesce(String message) {
+        if (!enabled || !TransactionSynchronizationManager.isActualTransactionActive()) {
+            return;
+        }
+        TransactionCallbacks.afterCommit(() -> coalesced.add(message));
+    }
+
+    // Рассылка накопленных изменений регистраций - отдельным запросом вне пути коммита
+    // регистраций: один NOTIFY (или несколько при длинном списке) на интервал на узел
+    @Scheduled(fixedDelayString = "${conference.cache-coherence.coalesce-interval-ms:1000}")
+    public void flushCoalesced() {
+        if (!enabled || coalesced.isEmpty()) {
+            return;
+        }
+        List<String> messages = new ArrayList<>();
+        for (Iterator<String> it = coalesced.iterator(); it.hasNext(); ) {
+            messages.add(it.next());
+            it.remove();
+        }
+        publish(messages);
+    }
+
+    // Один NOTIFY на транзакцию: коммит уведомляющих транзакций в PostgreSQL
+    // сериализуется глобальной блокировкой очереди уведомлений. Список, не влезающий
+    // в payload, делится на несколько уведомлений.
+    private void publish(Collection<String> messages) {
+        StringBuilder payload = new StringBuilder(nodeId).append(' ');
+        int header = payload.length();
+        for (String message : messages) {
+            if (payload.length() > header && payload.length() + 1 + message.length() > MAX_PAYLOAD_BYTES) {
+                sendNotification(payload.toString());
+                payload.setLength(header);
+            }
+            if (payload.length() > header) {
+                payload.append(',');
+            }
+            payload.append(message);
+        }
+        sendNotification(payload.toString());
+    }
+
+    private void sendNotification(String payload) {
+        jdbcTemplate.queryForObject("SELECT pg_notify(?, ?)", Object.class, channel, payload);
+        sent.increment();
+    }
+
+    private void listenLoop() {
+        while (running) {
+            try (Connection connection = DriverManager.getConnection(dataSourceProperties.determineUrl(),
+                    dataSourceProperties.determineUsername(), dataSourceProperties.determinePassword())) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + channel);
+                }
+                applier.execute(this::resetAll);
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(500);
+                    if (notifications == null) {
+                        continue;
+                    }
+                    for (PGNotification notification : notifications) {
+                        String payload = notification.getParameter();
+                        applier.execute(() -> handle(payload));
+                    }
+                }
+            } catch (SQLException | RuntimeException e) {
+                if (!running) {
+                    return;
+                }
+                log.warn("Cache coherence listener failed, reconnecting in {}", reconnectDelay, e);
+                try {
+                    Thread.sleep(reconnectDelay);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    private void handle(String payload) {
+        int separator = payload.indexOf(' ');
+        if (separator < 0 || payload.startsWith(nodeId + " ")) {
+            return;
+        }
+        received.increment();
+        for (String message : payload.substring(separator + 1).split(",")) {
+            try {
+                apply(message);
+            } catch (RuntimeException e) {
+                log.warn("Failed to apply cache coherence message {}", message, e);
+            }
+        }
+    }
+
+    private void apply(String message) {
+        String[] parts = message.split(":");
+        Long id = Long.valueOf(parts[1]);
+        switch (parts[0]) {
+            case "e" -> {
+                cacheInvalidator.invalidate(Event.class, id);
+                eventPublisher.publishEvent(new EventChanged(id));
+            }
+            case "s" -> {
+                cacheInvalidator.invalidate(Session.class, id);
+                // Состав сессий мог измениться: коллекции события и спикеров
+                if (parts.length > 2) {
+                    cache.evictCollectionData(Event.class.getName() + ".sessions", Long.valueOf(parts[2]));
+                    cache.evictCollectionData(Speaker.class.getName() + ".sessions");
+                }
+            }
+            case "r" -> {
+                cacheInvalidator.invalidate(Session.class, id);
+                eventPublisher.publishEvent(new SessionRegistrationsChanged(id));
+            }
+            case "p" -> cacheInvalidator.invalidate(Speaker.class, id);
+            case "a" -> eventPublisher.publishEvent(new AgendaChanged(id));
+            default -> log.warn("Unknown cache coherence message {}", message);
+        }
+    }
+
+    private void resetAll() {
+        try {
+            cache.evictAllRegions();
+            eventPublisher.publishEvent(new CacheReset());
+        } catch (RuntimeException e) {
+            log.warn("Failed to reset local caches", e);
+        }
+    }
+}
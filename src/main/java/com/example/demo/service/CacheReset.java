@@ -0,0 +1,6 @@
+package com.example.demo.service;
+
+// Локальные кэши могли пропустить изменения (например, на время потери связи
+// с другими узлами) и должны быть сброшены целиком
+public record CacheReset() {
+}
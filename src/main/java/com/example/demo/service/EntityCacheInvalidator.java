@@ -0,0 +1,67 @@
+package com.example.demo.service;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.cache.spi.TimestampsCache;
+import org.hibernate.cache.spi.access.EntityDataAccess;
+import org.hibernate.cache.spi.access.SoftLock;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.orm.jpa.EntityManagerFactoryUtils;
+import org.springframework.stereotype.Service;
+
+import java.util.Collection;
+
+// Точечная инвалидация кэша второго уровня после изменений в обход Hibernate
+// (JDBC, data-modifying CTE). Запись блокируется до завершения транзакции тем же
+// протоколом, что Hibernate применяет к своим обновлениям: пока блокировка держится,
+// и после нее для транзакций, начавшихся раньше, загруженное из БД значение
+// в кэш не кладется. Так в кэш не попадает счетчик, прочитанный до коммита.
+// Кэш запросов о таких изменениях тоже не знает, поэтому таблица сущности
+// помечается измененной (update timestamps) - закэшированные выборки по ней устаревают.
+@Service
+public class EntityCacheInvalidator {
+    private final EntityManagerFactory entityManagerFactory;
+    private final SessionFactoryImplementor sessionFactory;
+
+    public EntityCacheInvalidator(EntityManagerFactory entityManagerFactory) {
+        this.entityManagerFactory = entityManagerFactory;
+        this.sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+    }
+
+    public void invalidate(Class<?> entityClass, Object id) {
+        EntityPersister persister = sessionFactory.getMappingMetamodel().getEntityDescriptor(entityClass);
+        EntityDataAccess access = persister.getCacheAccessStrategy();
+        String[] spaces = persister.getPropertySpaces();
+        TimestampsCache timestamps = sessionFactory.getCache().getTimestampsCache();
+
+        // Вне транзакции изменение уже зафиксировано - достаточно убрать запись
+        EntityManager entityManager = EntityManagerFactoryUtils.getTransactionalEntityManager(entityManagerFactory);
+        if (entityManager == null) {
+            if (access != null) {
+                entityManagerFactory.getCache().evict(entityClass, id);
+            }
+            try (SessionImplementor session = sessionFactory.openTemporarySession()) {
+                timestamps.invalidate(spaces, session);
+            }
+            return;
+        }
+
+        SharedSessionContractImplementor session = entityManager.unwrap(SharedSessionContractImplementor.class);
+        timestamps.preInvalidate(spaces, session);
+        TransactionCallbacks.afterCompletion(() -> timestamps.invalidate(spaces, session));
+        if (access == null) {
+            return;
+        }
+
+        Object key = access.generateCacheKey(id, persister, sessionFactory, session.getTenantIdentifier());
+        SoftLock lock = access.lockItem(session, key, null);
+        TransactionCallbacks.afterCompletion(() -> access.unlockItem(session, key, lock));
+    }
+
+    public void invalidateAll(Class<?> entityClass, Collection<?> ids) {
+        ids.forEach(id -> invalidate(entityClass, id));
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.demo.service;
+
+// Доменное событие: изменились данные события, видимые в публичных списках
+// (поля, статус, удаление, счетчик участников). countersOnly - изменился только счетчик:
+// другим узлам такие изменения рассылаются пачками, вне коммита (CacheCoherenceService).
+// Публикуется внутри транзакции изменения.
+public record EventChanged(Long eventId, boolean countersOnly) {
+
+    public EventChanged(Long eventId) {
+        this(eventId, false);
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.demo.service;
+
+import com.example.demo.model.Event;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.function.Supplier;
+
+// Кэш публичных списков событий (лендинг): попадание не открывает транзакцию и не
+// обращается к БД. Списки сбрасываются доменным событием EventChanged после коммита
+// изменившей событие транзакции, в том числе на других узлах (CacheCoherenceService);
+// TTL ограничивает устаревание при изменениях в обход сервисов.
+@Service
+public class EventListingCache {
+
+    enum Listing {
+        PUBLIC, AVAILABLE
+    }
+
+    private final Cache<Listing, List<Event>> listings;
+    private final TransactionTemplate loadTransaction;
+
+    public EventListingCache(PlatformTransactionManager transactionManager,
+                             MeterRegistry meterRegistry,
+                             @Value("${conference.event-listings.ttl:30s}") Duration ttl,
+                             @Value("${conference.event-listings.max-size:100}") long maxSize) {
+        this.listings = Caffeine.newBuilder()
+                .expireAfterWrite(ttl)
+                .maximumSize(maxSize)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, listings, "event-listings");
+
+        // Промах загружается в собственной транзакции: сущности списка отсоединены и не
+        // привязаны к EntityManager запроса, а read-write транзакция читает с primary,
+        // а не с отстающей реплики
+        this.loadTransaction = new TransactionTemplate(transactionManager);
+        this.loadTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    List<Event> get(Listing listing, Supplier<List<Event>> loader) {
+        return listings.get(listing, key -> List.copyOf(loadTransaction.execute(status -> loader.get())));
+    }
+
+    // Ключи сбрасываются по одному: invalidate ждет загрузку того же ключа, начатую до
+    // коммита, и удаляет ее результат (invalidateAll незавершенные загрузки не видит)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEventChanged(EventChanged change) {
+        for (Listing listing : Listing.values()) {
+            listings.invalidate(listing);
+        }
+    }
+
+    @EventListener
+    public void onCacheReset(CacheReset reset) {
+        listings.invalidateAll();
+    }
+}
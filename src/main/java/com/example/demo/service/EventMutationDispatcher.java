@@ -0,0 +1,200 @@
+package com.example.demo.service;
+
+import com.example.demo.repository.RegistrationRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+// Режим "актор на событие": все изменения одного события выполняются по очереди
+// через его почтовый ящик, изменения разных событий - параллельно. Ящик без задач
+// не держит потоков: при появлении задачи он разбирается виртуальным потоком,
+// а опустевший ящик удаляется вместе со своими метриками: число метрик
+// ограничено событиями, у которых сейчас есть задачи.
+// В выключенном режиме (по умолчанию) операции выполняются в потоке вызывающего.
+@Service
+public class EventMutationDispatcher {
+    private final boolean enabled;
+    private final SeatInventoryService seatInventoryService;
+    private final RegistrationRepository registrationRepository;
+    private final EntityManagerFactory entityManagerFactory;
+    private final MeterRegistry meterRegistry;
+    private final AtomicInteger queued = new AtomicInteger();
+    private final Counter processed;
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final Map<Long, Mailbox> mailboxes = new ConcurrentHashMap<>();
+    // Событие, актор которого выполняется в текущем потоке (для вложенных вызовов)
+    private final ThreadLocal<Long> currentEvent = new ThreadLocal<>();
+
+    public EventMutationDispatcher(SeatInventoryService seatInventoryService,
+                                   RegistrationRepository registrationRepository,
+                                   EntityManagerFactory entityManagerFactory,
+                                   MeterRegistry meterRegistry,
+                                   @Value("${conference.event-actors.enabled:false}") boolean enabled) {
+        this.seatInventoryService = seatInventoryService;
+        this.registrationRepository = registrationRepository;
+        this.entityManagerFactory = entityManagerFactory;
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        Gauge.builder("conference.event-actors.mailboxes", mailboxes, Map::size)
+                .description("Почтовые ящики событий с задачами")
+                .register(meterRegistry);
+        Gauge.builder("conference.event-actors.queued", queued, AtomicInteger::get)
+                .description("Изменения событий, ожидающие выполнения")
+                .register(meterRegistry);
+        this.processed = Counter.builder("conference.event-actors.processed")
+                .description("Выполненные изменения событий")
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    // Выполняет изменение события в его акторе и возвращает результат вызывающему
+    public <T> T execute(Long eventId, Supplier<T> action) {
+        if (!enabled || eventId == null || eventId.equals(currentEvent.get())) {
+            return action.get();
+        }
+
+        // Вызывающий поток ждет результата, поэтому его EntityManager (open-in-view)
+        // можно безопасно передать актору: ленивые связи ответа останутся доступны
+        EntityManagerHolder emHolder =
+                (EntityManagerHolder) TransactionSynchronizationManager.getResource(entityManagerFactory);
+        CompletableFuture<T> result = new CompletableFuture<>();
+        submit(eventId, () -> {
+            boolean bound = emHolder != null && !TransactionSynchronizationManager.hasResource(entityManagerFactory);
+            if (bound) {
+                TransactionSynchronizationManager.bindResource(entityManagerFactory, emHolder);
+            }
+            try {
+                result.complete(action.get());
+            } catch (Throwable e) {
+                result.completeExceptionally(e);
+            } finally {
+                if (bound) {
+                    TransactionSynchronizationManager.unbindResource(entityManagerFactory);
+                }
+            }
+        });
+
+        try {
+            return result.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
+
+    // Задача добавляется под блокировкой ключа карты: ящик не может быть удален
+    // между выбором и добавлением, и у события не бывает двух ящиков сразу
+    private void submit(Long eventId, Runnable task) {
+        queued.incrementAndGet();
+        Mailbox mailbox = mailboxes.compute(eventId, (id, current) -> {
+            Mailbox target = current != null ? current : new Mailbox(id);
+            target.depth.incrementAndGet();
+            target.tasks.add(task);
+            return target;
+        });
+        mailbox.schedule();
+    }
+
+    public <T> T executeForSession(Long sessionId, Supplier<T> action) {
+        if (!enabled) {
+            return action.get();
+        }
+        return execute(seatInventoryService.getEventId(sessionId), action);
+    }
+
+    public <T> T executeForRegistration(Long registrationId, Supplier<T> action) {
+        if (!enabled) {
+            return action.get();
+        }
+        return execute(registrationRepository.findEventIdById(registrationId).orElse(null), action);
+    }
+
+    private final class Mailbox {
+        private final Long eventId;
+        private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        private final AtomicInteger depth = new AtomicInteger();
+        private final Gauge depthGauge;
+        private final Counter processedCounter;
+
+        private Mailbox(Long eventId) {
+            this.eventId = eventId;
+            String tag = String.valueOf(eventId);
+            this.depthGauge = Gauge.builder("conference.event-actors.mailbox.depth", depth, AtomicInteger::get)
+                    .description("Изменения события, ожидающие выполнения")
+                    .tag("eventId", tag)
+                    .register(meterRegistry);
+            this.processedCounter = Counter.builder("conference.event-actors.mailbox.processed")
+                    .description("Выполненные изменения события")
+                    .tag("eventId", tag)
+                    .register(meterRegistry);
+        }
+
+        private void schedule() {
+            if (scheduled.compareAndSet(false, true)) {
+                executor.execute(this::drain);
+            }
+        }
+
+        // Единственный писатель события: задачи ящика выполняются строго по одной
+        private void drain() {
+            currentEvent.set(eventId);
+            try {
+                Runnable task;
+                while ((task = tasks.poll()) != null) {
+                    queued.decrementAndGet();
+                    depth.decrementAndGet();
+                    task.run();
+                    processed.increment();
+                    processedCounter.increment();
+                }
+            } finally {
+                currentEvent.remove();
+                scheduled.set(false);
+                // Задача могла прийти между poll() и сбросом флага; иначе пустой
+                // ящик удаляется (submit добавляет задачи под той же блокировкой ключа).
+                // Метрики снимаются под этой же блокировкой - до того, как новый ящик
+                // события зарегистрирует свои с теми же именем и тегом.
+                if (!tasks.isEmpty()) {
+                    schedule();
+                } else {
+                    mailboxes.computeIfPresent(eventId, (id, current) -> {
+                        if (current != this || !tasks.isEmpty() || scheduled.get()) {
+                            return current;
+                        }
+                        meterRegistry.remove(depthGauge);
+                        meterRegistry.remove(processedCounter);
+                        return null;
+                    });
+                }
+            }
+        }
+    }
+}
@@ -1,29 +1,54 @@
 package com.example.demo.service;
 
+import com.example.demo.dto.CursorPage;
+import com.example.demo.dto.EventFilterDTO;
+import com.example.demo.dto.EventSummaryDTO;
 import com.example.demo.model.Event;
 import com.example.demo.repository.EventRepository;
+import com.example.demo.repository.EventSpecifications;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import java.util.List;
 
 @Service
 @RequiredArgsConstructor
 public class EventService {
     private final EventRepository eventRepository;
+    private final EventListingCache eventListingCache;
+    private final ApplicationEventPublisher eventPublisher;
 
-    public List<Event> getAllEvents() {
-        return eventRepository.findAll();
+    @Transactional(readOnly = true)
+    public CursorPage<EventSummaryDTO> getEvents(String cursor, Integer size) {
+        return KeysetPages.page(eventRepository.findSummaries(
+                KeysetPages.afterId(cursor), KeysetPages.lookahead(size)), size, EventSummaryDTO::getId);
     }
 
+    @Transactional(readOnly = true)
+    public CursorPage<EventSummaryDTO> searchEvents(EventFilterDTO filter, String cursor, Integer size) {
+        return KeysetPages.page(KeysetPages.scroll(eventRepository,
+                EventSpecifications.matching(filter), cursor, size).map(this::toSummary));
+    }
+
+    private EventSummaryDTO toSummary(Event event) {
+        return new EventSummaryDTO(event.getId(), event.getName(), event.getDescription(), event.getStartDate(),
+                event.getEndDate(), event.getLocation(), event.getMaxParticipants(), event.getCurrentParticipants(),
+                event.getStatus(), event.getRequiresApproval(), event.getRegistrationOpen());
+    }
+
+    @Transactional(readOnly = true)
     public Event getEventById(Long id) {
         return eventRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Event not found"));
     }
 
+    @Transactional
     public Event createEvent(Event event) {
-        return eventRepository.save(event);
+        return changed(eventRepository.save(event));
     }
 
+    @Transactional
     public Event updateEvent(Long id, Event eventDetails) {
         Event event = getEventById(id);
 
@@ -55,37 +80,43 @@ public class EventService {
             event.setRegistrationOpen(eventDetails.getRegistrationOpen());
         }
 
-        return eventRepository.save(event);
+        return changed(eventRepository.save(event));
     }
 
+    @Transactional
     public void deleteEvent(Long id) {
         Event event = getEventById(id);
         event.setDeleted(true);
-        eventRepository.save(event);
+        changed(eventRepository.save(event));
     }
 
     // Бизнес-операции
 
+    // Списки лендинга - из EventListingCache; промах загружается в собственной транзакции
     public List<Event> getEventsWithAvailableSpots() {
-        return eventRepository.findEventsWithAvailableSpots();
+        return eventListingCache.get(EventListingCache.Listing.AVAILABLE,
+                eventRepository::findEventsWithAvailableSpots);
     }
 
     public List<Event> getPublicEvents() {
-        return eventRepository.findByRegistrationOpenTrue();
+        return eventListingCache.get(EventListingCache.Listing.PUBLIC,
+                eventRepository::findByRegistrationOpenTrueAndDeletedFalse);
     }
 
+    @Transactional
     public Event updateEventStatus(Long id, String statusStr) {
         Event event = getEventById(id);
 
         try {
             Event.EventStatus status = Event.EventStatus.valueOf(statusStr.toUpperCase());
             event.setStatus(status);
-            return eventRepository.save(event);
+            return changed(eventRepository.save(event));
         } catch (IllegalArgumentException e) {
             throw new RuntimeException("Invalid status: " + statusStr);
         }
     }
 
+    @Transactional
     public Event duplicateEvent(Long id) {
         Event original = getEventById(id);
 
@@ -101,6 +132,11 @@ public class EventService {
         duplicate.setRegistrationOpen(true);
         duplicate.setDeleted(false);
 
-        return eventRepository.save(duplicate);
+        return changed(eventRepository.save(duplicate));
+    }
+
+    private Event changed(Event event) {
+        eventPublisher.publishEvent(new EventChanged(event.getId()));
+        return event;
     }
 }
\ No newline at end of file
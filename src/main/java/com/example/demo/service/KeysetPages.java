@@ -0,0 +1,101 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.CursorPage;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+// Keyset-пагинация по первичному ключу: курсор - закодированный id последней строки
+// страницы, следующая страница выбирается условием id > :last без OFFSET
+final class KeysetPages {
+    static final Sort BY_ID = Sort.by("id");
+
+    private static final int DEFAULT_SIZE = 50;
+    private static final int MAX_SIZE = 500;
+    private static final String KEY_PREFIX = "id:";
+
+    private KeysetPages() {
+    }
+
+    static ScrollPosition position(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return ScrollPosition.keyset();
+        }
+        return ScrollPosition.forward(Map.of("id", decode(cursor)));
+    }
+
+    // Для запросов-проекций вида "id > :afterId ORDER BY id": первая страница начинается с 0
+    static Long afterId(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return 0L;
+        }
+        return decode(cursor);
+    }
+
+    static Limit limit(Integer size) {
+        return Limit.of(pageSize(size));
+    }
+
+    // На одну строку больше страницы: по ней определяется наличие следующей страницы
+    static Limit lookahead(Integer size) {
+        return Limit.of(pageSize(size) + 1);
+    }
+
+    // Страница динамического фильтра: условия спецификации и "id > :last" в одном запросе
+    static <T> Window<T> scroll(JpaSpecificationExecutor<T> repository, Specification<T> spec,
+                                String cursor, Integer size) {
+        return repository.findBy(spec, query -> query.sortBy(BY_ID).limit(pageSize(size)).scroll(position(cursor)));
+    }
+
+    static <T> CursorPage<T> page(Window<T> window) {
+        String nextCursor = null;
+        if (window.hasNext() && !window.isEmpty()) {
+            KeysetScrollPosition last = (KeysetScrollPosition) window.positionAt(window.size() - 1);
+            nextCursor = encode(last.getKeys().get("id"));
+        }
+        return new CursorPage<>(window.getContent(), nextCursor, window.hasNext(), window.size());
+    }
+
+    // Страница из строк, выбранных с лимитом lookahead(size)
+    static <T> CursorPage<T> page(List<T> rows, Integer size, Function<T, Long> idOf) {
+        int pageSize = pageSize(size);
+        boolean hasNext = rows.size() > pageSize;
+        List<T> items = hasNext ? rows.subList(0, pageSize) : rows;
+        String nextCursor = hasNext ? encode(idOf.apply(items.get(items.size() - 1))) : null;
+        return new CursorPage<>(items, nextCursor, hasNext, items.size());
+    }
+
+    private static int pageSize(Integer size) {
+        if (size == null || size <= 0) {
+            return DEFAULT_SIZE;
+        }
+        return Math.min(size, MAX_SIZE);
+    }
+
+    private static String encode(Object id) {
+        String key = KEY_PREFIX + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(key.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Long decode(String cursor) {
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            if (!decoded.startsWith(KEY_PREFIX)) {
+                throw new IllegalArgumentException(decoded);
+            }
+            return Long.parseLong(decoded.substring(KEY_PREFIX.length()));
+        } catch (IllegalArgumentException e) {
+            throw new RuntimeException("Invalid cursor: " + cursor);
+        }
+    }
+}
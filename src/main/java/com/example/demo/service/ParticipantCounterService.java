@@ -0,0 +1,116 @@
+package com.example.demo.service;
+
+import com.example.demo.model.Event;
+import com.example.demo.model.Session;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.jpa.EntityManagerFactoryUtils;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+// Счетчики участников событий и сессий. Меняются атомарными UPDATE через JDBC:
+// массовый UPDATE в JPQL сбросил бы весь регион кэша второго уровня, а здесь
+// инвалидируется только затронутая запись. Перед UPDATE несохраненные изменения
+// сущностей сбрасываются в БД, как это делал бы JPQL: условие должно видеть,
+// например, новую max_capacity, выставленную в той же транзакции.
+@Service
+@RequiredArgsConstructor
+public class ParticipantCounterService {
+    // Условный UPDATE: 0 обновленных строк означает, что мест нет
+    private static final String RESERVE_EVENT_SQL =
+            "UPDATE events SET current_participants = COALESCE(current_participants, 0) + 1 " +
+                    "WHERE id = ? AND (max_participants IS NULL OR COALESCE(current_participants, 0) < max_participants)";
+    private static final String RELEASE_EVENT_SQL =
+            "UPDATE events SET current_participants = current_participants - 1 WHERE id = ? AND current_participants > 0";
+    private static final String ADD_EVENT_SQL =
+            "UPDATE events SET current_participants = COALESCE(current_participants, 0) + ? WHERE id = ?";
+    private static final String RESERVE_SESSION_SQL =
+            "UPDATE sessions SET current_participants = COALESCE(current_participants, 0) + 1 " +
+                    "WHERE id = ? AND (max_capacity IS NULL OR COALESCE(current_participants, 0) < max_capacity)";
+    private static final String RELEASE_SESSION_SQL =
+            "UPDATE sessions SET current_participants = current_participants - 1 WHERE id = ? AND current_participants > 0";
+    private static final String ADD_SESSION_SQL =
+            "UPDATE sessions SET current_participants = COALESCE(current_participants, 0) + ? WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityManagerFactory entityManagerFactory;
+    private final EntityCacheInvalidator entityCacheInvalidator;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public boolean reserveEventSpot(Long eventId) {
+        return eventChanged(eventId, update(Event.class, eventId, RESERVE_EVENT_SQL));
+    }
+
+    public void releaseEventSpot(Long eventId) {
+        eventChanged(eventId, update(Event.class, eventId, RELEASE_EVENT_SQL));
+    }
+
+    public boolean reserveSessionSeat(Long sessionId) {
+        return sessionChanged(sessionId, update(Session.class, sessionId, RESERVE_SESSION_SQL));
+    }
+
+    public void releaseSessionSeat(Long sessionId) {
+        sessionChanged(sessionId, update(Session.class, sessionId, RELEASE_SESSION_SQL));
+    }
+
+    // Пакетное увеличение счетчиков: id -> прирост
+    public void addEventParticipants(Map<Long, Integer> increments) {
+        addAll(Event.class, increments, ADD_EVENT_SQL);
+        increments.keySet().forEach(eventId -> eventChanged(eventId, true));
+    }
+
+    public void addSessionParticipants(Map<Long, Integer> increments) {
+        addAll(Session.class, increments, ADD_SESSION_SQL);
+        increments.keySet().forEach(sessionId -> sessionChanged(sessionId, true));
+    }
+
+    // Счетчик события виден в публичных списках (EventListingCache)
+    private boolean eventChanged(Long eventId, boolean changed) {
+        if (changed) {
+            eventPublisher.publishEvent(new EventChanged(eventId, true));
+        }
+        return changed;
+    }
+
+    // Счетчик сессии хранится в кэше второго уровня на других узлах (CacheCoherenceService)
+    private boolean sessionChanged(Long sessionId, boolean changed) {
+        if (changed) {
+            eventPublisher.publishEvent(new SessionChanged(sessionId, null));
+        }
+        return changed;
+    }
+
+    private boolean update(Class<?> entityClass, Long id, String sql) {
+        flushPendingChanges();
+        boolean updated = jdbcTemplate.update(sql, id) > 0;
+        if (updated) {
+            entityCacheInvalidator.invalidate(entityClass, id);
+        }
+        return updated;
+    }
+
+    private void addAll(Class<?> entityClass, Map<Long, Integer> increments, String sql) {
+        if (increments.isEmpty()) {
+            return;
+        }
+        flushPendingChanges();
+        List<Object[]> args = increments.entrySet().stream()
+                .map(entry -> new Object[]{entry.getValue(), entry.getKey()})
+                .collect(Collectors.toList());
+        jdbcTemplate.batchUpdate(sql, args);
+        entityCacheInvalidator.invalidateAll(entityClass, increments.keySet());
+    }
+
+    private void flushPendingChanges() {
+        EntityManager entityManager = EntityManagerFactoryUtils.getTransactionalEntityManager(entityManagerFactory);
+        if (entityManager != null) {
+            entityManager.flush();
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.demo.service;
+
+import com.example.demo.repository.ParticipantRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+// In-memory множество нормализованных email участников.
+// Адреса, которого нет в множестве, нет и в БД (с точностью до вставок на других
+// узлах), поэтому поиск перед вставкой не нужен; окончательное решение принимает
+// уникальный индекс participants.email_normalized. Адреса только добавляются:
+// старый адрес после смены или откатанная вставка дают лишний поиск, но не ошибку.
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ParticipantEmailIndex {
+    private final ParticipantRepository participantRepository;
+
+    private final Set<String> emails = ConcurrentHashMap.newKeySet();
+    private volatile boolean loaded;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadFromDatabase() {
+        emails.addAll(participantRepository.findAllNormalizedEmails());
+        loaded = true;
+        log.info("Participant email index loaded with {} emails", emails.size());
+    }
+
+    // false - адрес заведомо новый; до загрузки любой адрес считается возможно занятым
+    public boolean mightExist(String normalizedEmail) {
+        return normalizedEmail != null && (!loaded || emails.contains(normalizedEmail));
+    }
+
+    // Вызывается до коммита: вставка, начатая после, уже выполнит поиск
+    public void add(String normalizedEmail) {
+        if (normalizedEmail != null) {
+            emails.add(normalizedEmail);
+        }
+    }
+}
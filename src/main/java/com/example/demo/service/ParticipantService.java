@@ -1,40 +1,100 @@
 package com.example.demo.service;
 
+import com.example.demo.dto.CursorPage;
+import com.example.demo.dto.ParticipantFilterDTO;
+import com.example.demo.dto.ParticipantImportResultDTO;
+import com.example.demo.dto.ParticipantImportRowDTO;
+import com.example.demo.dto.RegistrationSummaryDTO;
 import com.example.demo.model.Participant;
 import com.example.demo.model.Registration;
 import com.example.demo.repository.ParticipantRepository;
+import com.example.demo.repository.ParticipantSpecifications;
 import com.example.demo.repository.RegistrationRepository;
 import lombok.RequiredArgsConstructor;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
-import java.util.stream.Collectors;
+import java.util.Set;
 
 @Service
 @RequiredArgsConstructor
 public class ParticipantService {
     private final ParticipantRepository participantRepository;
     private final RegistrationRepository registrationRepository;
+    private final ParticipantEmailIndex emailIndex;
+
+    // Адресов в одном IN-запросе при импорте
+    private static final int IMPORT_LOOKUP_BATCH = 1000;
 
     // CRUD методы
-    public List<Participant> getAllParticipants() {
-        return participantRepository.findAll();
+    @Transactional(readOnly = true)
+    public CursorPage<Participant> getParticipants(String cursor, Integer size) {
+        return KeysetPages.page(participantRepository.findAllBy(
+                KeysetPages.position(cursor), KeysetPages.limit(size), KeysetPages.BY_ID));
     }
 
+    @Transactional(readOnly = true)
     public Participant getParticipantById(Long id) {
         return participantRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Participant not found"));
     }
 
+    @Transactional
     public Participant createParticipant(Participant participant) {
-        Optional<Participant> existing = participantRepository.findByEmail(participant.getEmail());
-        if (existing.isPresent()) {
+        String email = participant.getEmailNormalized();
+        if (emailIndex.mightExist(email) && participantRepository.findByEmailNormalized(email).isPresent()) {
             throw new RuntimeException("Participant with this email already exists");
         }
 
-        return participantRepository.save(participant);
+        emailIndex.add(email);
+        return saveUnique(participant, "Participant with this email already exists");
     }
 
+    // Импорт списка участников: адреса, уже занятые или повторяющиеся в списке, пропускаются.
+    // Занятость проверяется одним запросом на пакет и только для адресов, которые
+    // могут быть в БД (ParticipantEmailIndex); новые участники вставляются JDBC-пакетами.
+    @Transactional
+    public ParticipantImportResultDTO importParticipants(List<Participant> participants) {
+        Map<String, Participant> candidates = new LinkedHashMap<>();
+        for (Participant participant : participants) {
+            String email = participant.getEmailNormalized();
+            if (email != null && participant.getFirstName() != null && participant.getLastName() != null) {
+                candidates.putIfAbsent(email, participant);
+            }
+        }
+
+        Set<String> existing = new HashSet<>();
+        List<String> toCheck = candidates.keySet().stream().filter(emailIndex::mightExist).toList();
+        for (int from = 0; from < toCheck.size(); from += IMPORT_LOOKUP_BATCH) {
+            existing.addAll(participantRepository.findExistingNormalizedEmails(
+                    toCheck.subList(from, Math.min(from + IMPORT_LOOKUP_BATCH, toCheck.size()))));
+        }
+
+        List<Participant> created = candidates.entrySet().stream()
+                .filter(candidate -> !existing.contains(candidate.getKey()))
+                .map(Map.Entry::getValue)
+                .toList();
+        created.forEach(participant -> emailIndex.add(participant.getEmailNormalized()));
+        participantRepository.saveAll(created);
+        flushUnique("Participants with these emails were created concurrently, retry the import");
+
+        Set<Participant> createdSet = Collections.newSetFromMap(new IdentityHashMap<>());
+        createdSet.addAll(created);
+        return new ParticipantImportResultDTO(participants.stream()
+                .map(participant -> importRow(participant, createdSet.contains(participant), existing))
+                .toList());
+    }
+
+    @Transactional
     public Participant updateParticipant(Long id, Participant participantDetails) {
         Participant participant = getParticipantById(id);
 
@@ -45,12 +105,16 @@ public class ParticipantService {
             participant.setLastName(participantDetails.getLastName());
         }
 
-        if (participantDetails.getEmail() != null &&
-                !participantDetails.getEmail().equals(participant.getEmail())) {
-            Optional<Participant> existing = participantRepository.findByEmail(participantDetails.getEmail());
+        // Смена только регистра своего же адреса проверки не требует
+        String email = participantDetails.getEmailNormalized();
+        if (email != null && !email.equals(participant.getEmailNormalized()) && emailIndex.mightExist(email)) {
+            Optional<Participant> existing = participantRepository.findByEmailNormalized(email);
             if (existing.isPresent() && !existing.get().getId().equals(id)) {
                 throw new RuntimeException("Email already in use by another participant");
             }
+        }
+        if (email != null) {
+            emailIndex.add(email);
             participant.setEmail(participantDetails.getEmail());
         }
 
@@ -67,9 +131,10 @@ public class ParticipantService {
             participant.setIsActive(participantDetails.getIsActive());
         }
 
-        return participantRepository.save(participant);
+        return saveUnique(participant, "Email already in use by another participant");
     }
 
+    @Transactional
     public void deleteParticipant(Long id) {
         Participant participant = getParticipantById(id);
         participant.setIsActive(false);
@@ -78,20 +143,24 @@ public class ParticipantService {
 
     // Бизнес-операции
 
+    @Transactional(readOnly = true)
     public List<Participant> getParticipantsByCompany(String company) {
         return participantRepository.findByCompany(company);
     }
 
+    @Transactional(readOnly = true)
     public List<Participant> getActiveParticipants() {
         return participantRepository.findByIsActiveTrue();
     }
 
+    @Transactional
     public Participant deactivateParticipant(Long id) {
         Participant participant = getParticipantById(id);
         participant.setIsActive(false);
         return participantRepository.save(participant);
     }
 
+    @Transactional
     public Participant activateParticipant(Long id) {
         Participant participant = getParticipantById(id);
         participant.setIsActive(true);
@@ -100,35 +169,72 @@ public class ParticipantService {
 
     // Дополнительные методы для контроллера
 
+    @Transactional(readOnly = true)
     public List<Registration> getParticipantRegistrations(Long participantId) {
         return registrationRepository.findByParticipantId(participantId);
     }
 
-    public List<Participant> getParticipantsByEvent(Long eventId) {
-        List<Registration> registrations = registrationRepository.findByEventId(eventId);
+    @Transactional(readOnly = true)
+    public CursorPage<RegistrationSummaryDTO> getParticipantRegistrations(Long participantId, String cursor, Integer size) {
+        return KeysetPages.page(registrationRepository.findSummariesByParticipantId(participantId,
+                KeysetPages.afterId(cursor), KeysetPages.lookahead(size)), size, RegistrationSummaryDTO::getId);
+    }
 
-        return registrations.stream()
-                .map(Registration::getParticipant)
-                .distinct()
-                .collect(Collectors.toList());
+    @Transactional(readOnly = true)
+    public List<Participant> getParticipantsByEvent(Long eventId) {
+        return participantRepository.findRosterByEventId(eventId);
     }
 
     // ИСПРАВЛЕННЫЙ МЕТОД - был баг с передачей параметра
+    @Transactional
     public Participant verifyParticipant(Long participantId) {
         // В данном контексте просто активируем участника
         return activateParticipant(participantId);
     }
 
+    @Transactional(readOnly = true)
     public List<Participant> searchParticipants(String keyword) {
-        List<Participant> allParticipants = participantRepository.findAll();
-
-        return allParticipants.stream()
-                .filter(p ->
-                        (p.getFirstName() != null && p.getFirstName().toLowerCase().contains(keyword.toLowerCase())) ||
-                                (p.getLastName() != null && p.getLastName().toLowerCase().contains(keyword.toLowerCase())) ||
-                                (p.getEmail() != null && p.getEmail().toLowerCase().contains(keyword.toLowerCase())) ||
-                                (p.getCompany() != null && p.getCompany().toLowerCase().contains(keyword.toLowerCase()))
-                )
-                .collect(Collectors.toList());
+        return participantRepository.findAll(ParticipantSpecifications.containsKeyword(keyword), KeysetPages.BY_ID);
+    }
+
+    // Вставка без предварительного поиска: занятый адрес (например, добавленный
+    // другим узлом) обнаруживается уникальным индексом при flush
+    private Participant saveUnique(Participant participant, String conflictMessage) {
+        Participant saved = participantRepository.save(participant);
+        flushUnique(conflictMessage);
+        return saved;
+    }
+
+    private void flushUnique(String conflictMessage) {
+        try {
+            participantRepository.flush();
+        } catch (DataIntegrityViolationException e) {
+            if (e.getCause() instanceof ConstraintViolationException violation
+                    && violation.getConstraintName() != null
+                    && violation.getConstraintName().toLowerCase(Locale.ROOT).contains("email")) {
+                throw new RuntimeException(conflictMessage, e);
+            }
+            throw e;
+        }
+    }
+
+    private static ParticipantImportRowDTO importRow(Participant participant, boolean created, Set<String> existing) {
+        String email = participant.getEmail();
+        if (created) {
+            return new ParticipantImportRowDTO(email, true, participant.getId(), null);
+        }
+        if (email == null || participant.getFirstName() == null || participant.getLastName() == null) {
+            return new ParticipantImportRowDTO(email, false, null, "Email, first name and last name are required");
+        }
+        String error = existing.contains(participant.getEmailNormalized())
+                ? "Participant with this email already exists"
+                : "Duplicate email in import";
+        return new ParticipantImportRowDTO(email, false, null, error);
+    }
+
+    @Transactional(readOnly = true)
+    public CursorPage<Participant> filterParticipants(ParticipantFilterDTO filter, String cursor, Integer size) {
+        return KeysetPages.page(KeysetPages.scroll(participantRepository,
+                ParticipantSpecifications.matching(filter), cursor, size));
     }
 }
\ No newline at end of file
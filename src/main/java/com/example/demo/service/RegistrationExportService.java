@@ -0,0 +1,153 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.RegistrationExportDTO;
+import com.example.demo.exception.ResourceNotFoundException;
+import com.example.demo.repository.EventRepository;
+import com.example.demo.repository.RegistrationRepository;
+import com.example.demo.repository.SessionRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.stream.Stream;
+
+// Выгрузка регистраций в NDJSON или CSV. Строки идут из БД курсором прямо в поток
+// ответа, поэтому расход памяти не зависит от размера события. Методы export* вызываются
+// из StreamingResponseBody - транзакция и соединение живут, пока пишется ответ.
+@Service
+@RequiredArgsConstructor
+public class RegistrationExportService {
+    private static final String CSV_HEADER = "id,registrationDate,status,waitlistPriority,eventId,eventName," +
+            "sessionId,sessionTitle,participantId,firstName,lastName,email,company";
+
+    private final RegistrationRepository registrationRepository;
+    private final EventRepository eventRepository;
+    private final SessionRepository sessionRepository;
+    private final ObjectMapper objectMapper;
+
+    public enum Format {
+        NDJSON("application/x-ndjson", "ndjson"),
+        CSV("text/csv;charset=UTF-8", "csv");
+
+        private final String contentType;
+        private final String extension;
+
+        Format(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+
+        public static Format of(String value) {
+            try {
+                return valueOf(value.toUpperCase());
+            } catch (IllegalArgumentException e) {
+                throw new RuntimeException("Unsupported export format: " + value);
+            }
+        }
+    }
+
+    // Проверки выполняются до начала ответа, пока еще можно вернуть код ошибки
+    public void checkEventExists(Long eventId) {
+        if (!eventRepository.existsById(eventId)) {
+            throw new ResourceNotFoundException("Event", "id", eventId);
+        }
+    }
+
+    public void checkSessionExists(Long sessionId) {
+        if (!sessionRepository.existsById(sessionId)) {
+            throw new ResourceNotFoundException("Session", "id", sessionId);
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public void exportAll(Format format, OutputStream out) throws IOException {
+        try (Stream<RegistrationExportDTO> rows = registrationRepository.streamExport()) {
+            write(rows, format, out);
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public void exportByEvent(Long eventId, Format format, OutputStream out) throws IOException {
+        try (Stream<RegistrationExportDTO> rows = registrationRepository.streamExportByEventId(eventId)) {
+            write(rows, format, out);
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public void exportBySession(Long sessionId, Format format, OutputStream out) throws IOException {
+        try (Stream<RegistrationExportDTO> rows = registrationRepository.streamExportBySessionId(sessionId)) {
+            write(rows, format, out);
+        }
+    }
+
+    private void write(Stream<RegistrationExportDTO> rows, Format format, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        try {
+            if (format == Format.CSV) {
+                writer.write(CSV_HEADER);
+                writer.write('\n');
+                rows.forEach(row -> writeLine(writer, toCsv(row)));
+            } else {
+                ObjectWriter json = objectMapper.writerFor(RegistrationExportDTO.class);
+                rows.forEach(row -> writeLine(writer, toJson(json, row)));
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        writer.flush();
+    }
+
+    private static void writeLine(Writer writer, String line) {
+        try {
+            writer.write(line);
+            writer.write('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String toJson(ObjectWriter json, RegistrationExportDTO row) {
+        try {
+            return json.writeValueAsString(row);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String toCsv(RegistrationExportDTO row) {
+        return String.join(",",
+                csv(row.getId()), csv(row.getRegistrationDate()), csv(row.getStatus()), csv(row.getWaitlistPriority()),
+                csv(row.getEventId()), csv(row.getEventName()), csv(row.getSessionId()), csv(row.getSessionTitle()),
+                csv(row.getParticipantId()), csv(row.getFirstName()), csv(row.getLastName()), csv(row.getEmail()),
+                csv(row.getCompany()));
+    }
+
+    // RFC 4180: поле с разделителем, кавычкой или переводом строки берется в кавычки
+    private static String csv(Object value) {
+        if (value == null) {
+            return "";
+        }
+        String text = value.toString();
+        if (text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0 && text.indexOf('\r') < 0) {
+            return text;
+        }
+        return '"' + text.replace("\"", "\"\"") + '"';
+    }
+}
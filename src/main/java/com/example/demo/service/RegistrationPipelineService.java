@@ -0,0 +1,204 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.BulkRegistrationRowDTO;
+import com.example.demo.dto.RegistrationTicketDTO;
+import com.example.demo.dto.RegistrationTicketDTO.TicketStatus;
+import com.example.demo.exception.AdmissionRejectedException;
+import com.example.demo.exception.ResourceNotFoundException;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.*;
+
+// Асинхронная регистрация на сессии: запросы копятся в очереди, фоновый
+// виртуальный поток выбирает их пакетами и регистрирует одной транзакцией
+// на пакет через BulkRegistrationService. Клиент получает тикет и опрашивает его статус.
+@Service
+@Slf4j
+public class RegistrationPipelineService {
+    private final BulkRegistrationService bulkRegistrationService;
+    private final SeatInventoryService seatInventoryService;
+
+    private final int batchSize;
+    private final long lingerNanos;
+    private final BlockingQueue<Ticket> queue;
+    private final Cache<String, Ticket> tickets;
+    private final Timer batchTimer;
+
+    private volatile boolean running;
+    private Thread worker;
+
+    private record Ticket(RegistrationTicketDTO queued, CompletableFuture<RegistrationTicketDTO> result) {
+    }
+
+    public RegistrationPipelineService(BulkRegistrationService bulkRegistrationService,
+                                       SeatInventoryService seatInventoryService,
+                                       MeterRegistry meterRegistry,
+                                       @Value("${conference.registration-pipeline.batch-size:500}") int batchSize,
+                                       @Value("${conference.registration-pipeline.linger-ms:20}") long lingerMillis,
+                                       @Value("${conference.registration-pipeline.queue-capacity:100000}") int queueCapacity,
+                                       @Value("${conference.registration-pipeline.ticket-ttl:1h}") Duration ticketTtl) {
+        this.bulkRegistrationService = bulkRegistrationService;
+        this.seatInventoryService = seatInventoryService;
+        this.batchSize = batchSize;
+        this.lingerNanos = TimeUnit.MILLISECONDS.toNanos(lingerMillis);
+        this.queue = new LinkedBlockingQueue<>(queueCapacity);
+        this.tickets = Caffeine.newBuilder()
+                .expireAfterWrite(ticketTtl)
+                .build();
+
+        this.batchTimer = Timer.builder("conference.registration-pipeline.batch")
+                .description("Время обработки пакета регистраций")
+                .register(meterRegistry);
+        Gauge.builder("conference.registration-pipeline.queue", queue, BlockingQueue::size)
+                .description("Регистрации, ожидающие обработки")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        running = true;
+        worker = Thread.ofVirtual().name("registration-pipeline").start(this::drainLoop);
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        if (worker != null) {
+            worker.interrupt();
+        }
+        List<Ticket> pending = new ArrayList<>();
+        queue.drainTo(pending);
+        pending.forEach(ticket -> complete(ticket, TicketStatus.FAILED, null, "Registration pipeline stopped"));
+    }
+
+    public RegistrationTicketDTO submit(Long participantId, Long sessionId) {
+        RegistrationTicketDTO queued = new RegistrationTicketDTO(UUID.randomUUID().toString(), participantId,
+                sessionId, TicketStatus.QUEUED, null, null, LocalDateTime.now(), null);
+        Ticket ticket = new Ticket(queued, new CompletableFuture<>());
+        tickets.put(queued.getTicketId(), ticket);
+
+        // Заведомо заполненная сессия не занимает место в очереди
+        if (!seatInventoryService.hasFreeSeat(sessionId)) {
+            return complete(ticket, TicketStatus.FAILED, null, "Session is full");
+        }
+        if (!queue.offer(ticket)) {
+            tickets.invalidate(queued.getTicketId());
+            throw new AdmissionRejectedException("Registration pipeline is full, try again later", 1);
+        }
+        return queued;
+    }
+
+    // Текущее состояние тикета; при waitMillis > 0 ждет завершения не дольше указанного
+    public RegistrationTicketDTO getTicket(String ticketId, long waitMillis) {
+        Ticket ticket = tickets.getIfPresent(ticketId);
+        if (ticket == null) {
+            throw new ResourceNotFoundException("Ticket", "id", ticketId);
+        }
+        if (waitMillis <= 0) {
+            return ticket.result().getNow(ticket.queued());
+        }
+        try {
+            return ticket.result().get(waitMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            return ticket.queued();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return ticket.queued();
+        } catch (ExecutionException e) {
+            throw new RuntimeException(e.getCause());
+        }
+    }
+
+    private void drainLoop() {
+        List<Ticket> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                Ticket first = queue.poll(500, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+
+                // Короткое ожидание, чтобы набрать пакет при равномерном потоке запросов
+                long deadline = System.nanoTime() + lingerNanos;
+                while (batch.size() < batchSize) {
+                    queue.drainTo(batch, batchSize - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() >= batchSize || remaining <= 0) {
+                        break;
+                    }
+                    Ticket next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                processBatch(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                batch.forEach(ticket -> complete(ticket, TicketStatus.FAILED, null, "Registration pipeline stopped"));
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void processBatch(List<Ticket> batch) {
+        List<BulkRegistrationService.RegistrationPair> pairs = batch.stream()
+                .map(ticket -> new BulkRegistrationService.RegistrationPair(
+                        ticket.queued().getParticipantId(), ticket.queued().getSessionId()))
+                .toList();
+        try {
+            List<BulkRegistrationRowDTO> rows = batchTimer.record(() -> bulkRegistrationService.registerPairs(pairs));
+            for (int i = 0; i < batch.size(); i++) {
+                BulkRegistrationRowDTO row = rows.get(i);
+                complete(batch.get(i), row.getSuccess() ? TicketStatus.COMPLETED : TicketStatus.FAILED,
+                        row.getRegistrationId(), row.getError());
+            }
+        } catch (DataIntegrityViolationException e) {
+            // Ограничение БД нарушила одна из строк (например, параллельная регистрация той же
+            // пары - uk_registrations_participant_session): пакет откачен целиком, поэтому
+            // половины повторяются отдельно, пока ошибка не останется только у виновных строк
+            if (batch.size() == 1) {
+                complete(batch.get(0), TicketStatus.FAILED, null, e instanceof DuplicateKeyException
+                        ? "Participant already registered for this session"
+                        : "Registration failed: " + e.getMostSpecificCause().getMessage());
+                return;
+            }
+            log.warn("Registration batch of {} requests violated a constraint, retrying in halves", batch.size());
+            int middle = batch.size() / 2;
+            processBatch(batch.subList(0, middle));
+            processBatch(batch.subList(middle, batch.size()));
+        } catch (RuntimeException e) {
+            log.error("Registration batch of {} requests failed", batch.size(), e);
+            batch.forEach(ticket -> complete(ticket, TicketStatus.FAILED, null,
+                    "Registration batch failed: " + e.getMessage()));
+        }
+    }
+
+    private RegistrationTicketDTO complete(Ticket ticket, TicketStatus status, Long registrationId, String error) {
+        RegistrationTicketDTO queued = ticket.queued();
+        RegistrationTicketDTO result = new RegistrationTicketDTO(queued.getTicketId(), queued.getParticipantId(),
+                queued.getSessionId(), status, registrationId, error, queued.getSubmittedAt(), LocalDateTime.now());
+        ticket.result().complete(result);
+        return result;
+    }
+}
@@ -1,5 +1,8 @@
 package com.example.demo.service;
 
+import com.example.demo.dto.CursorPage;
+import com.example.demo.dto.RegistrationDTO;
+import com.example.demo.dto.RegistrationSummaryDTO;
 import com.example.demo.model.*;
 import com.example.demo.repository.*;
 import jakarta.transaction.Transactional;
@@ -16,10 +19,16 @@ public class RegistrationService {
     private final ParticipantRepository participantRepository;
     private final SessionRepository sessionRepository;
     private final EventRepository eventRepository;
+    private final SeatInventoryService seatInventoryService;
+    private final ScheduleIndexService scheduleIndexService;
+    private final WaitlistService waitlistService;
+    private final SingleStatementRegistrationService singleStatementRegistrationService;
+    private final ParticipantCounterService participantCounterService;
 
     // CRUD операции
-    public List<Registration> getAllRegistrations() {
-        return registrationRepository.findAll();
+    public CursorPage<RegistrationSummaryDTO> getRegistrations(String cursor, Integer size) {
+        return KeysetPages.page(registrationRepository.findSummaries(
+                KeysetPages.afterId(cursor), KeysetPages.lookahead(size)), size, RegistrationSummaryDTO::getId);
     }
 
     public Registration getRegistrationById(Long id) {
@@ -46,13 +55,9 @@ public class RegistrationService {
             throw new RuntimeException("Registration for this event is closed");
         }
 
-        // Проверка доступности мест
-        if (!event.hasAvailableSpots()) {
-            throw new RuntimeException("Event is full");
-        }
-
         // Проверка, не зарегистрирован ли уже
-        Registration existingRegistration = registrationRepository.findByParticipantIdAndEventId(participantId, eventId);
+        Registration existingRegistration =
+                registrationRepository.findFirstByParticipantIdAndEventIdAndSessionIsNull(participantId, eventId);
         if (existingRegistration != null &&
                 (existingRegistration.getStatus() == Registration.RegistrationStatus.CONFIRMED ||
                         existingRegistration.getStatus() == Registration.RegistrationStatus.PENDING ||
@@ -67,15 +72,34 @@ public class RegistrationService {
         registration.setRegistrationDate(LocalDateTime.now());
         registration.setStatus(Registration.RegistrationStatus.CONFIRMED);
 
-        // Увеличиваем счетчик участников
-        event.incrementParticipants();
-        eventRepository.save(event);
+        // Занимаем место одним условным UPDATE: число обновленных строк и есть решение о допуске
+        if (!participantCounterService.reserveEventSpot(eventId)) {
+            throw new RuntimeException("Event is full");
+        }
 
         return registrationRepository.save(registration);
     }
 
     @Transactional
     public Registration registerForSession(Long participantId, Long sessionId) {
+        // Быстрый отказ по заполненной сессии без обращения к БД
+        if (!seatInventoryService.tryReserve(sessionId)) {
+            throw new RuntimeException("Session is full");
+        }
+        TransactionCallbacks.afterRollback(() -> seatInventoryService.release(sessionId));
+
+        // PostgreSQL: проверки и вставка одним запросом
+        if (singleStatementRegistrationService.isEnabled()) {
+            try {
+                return singleStatementRegistrationService.registerForSession(participantId, sessionId);
+            } catch (RuntimeException e) {
+                if ("Session is full".equals(e.getMessage())) {
+                    TransactionCallbacks.afterRollback(() -> seatInventoryService.resync(sessionId));
+                }
+                throw e;
+            }
+        }
+
         Participant participant = participantRepository.findById(participantId)
                 .orElseThrow(() -> new RuntimeException("Participant not found with id: " + participantId));
 
@@ -89,35 +113,18 @@ public class RegistrationService {
             throw new RuntimeException("Registration for this event is closed");
         }
 
-        // Проверка доступности мест в сессии
-        long currentRegistrations = registrationRepository.countBySessionId(sessionId);
-        if (session.getMaxCapacity() != null && currentRegistrations >= session.getMaxCapacity()) {
-            throw new RuntimeException("Session is full");
-        }
-
         // Проверка, не зарегистрирован ли уже на эту сессию
         if (registrationRepository.existsByParticipantIdAndSessionId(participantId, sessionId)) {
             throw new RuntimeException("Participant already registered for this session");
         }
 
-        // Проверка пересечения времени
-        boolean hasTimeConflict = registrationRepository.existsParticipantTimeConflict(
-                participantId,
-                session.getStartTime(),
-                session.getEndTime()
-        );
-
-        if (hasTimeConflict) {
+        // Проверка пересечения времени по in-memory индексу; интервал сразу занимается
+        if (!scheduleIndexService.tryBookParticipant(participantId, sessionId,
+                session.getStartTime(), session.getEndTime())) {
             throw new RuntimeException("Participant has time conflict with another session");
         }
 
-        // Проверка, зарегистрирован ли на событие
-        Registration eventRegistration = registrationRepository.findByParticipantIdAndEventId(participantId, event.getId());
-        if (eventRegistration == null ||
-                eventRegistration.getStatus() == Registration.RegistrationStatus.CANCELLED) {
-            // Если не зарегистрирован на событие, создаем регистрацию
-            eventRegistration = registerForEvent(participantId, event.getId());
-        }
+        ensureEventRegistration(participantId, event.getId());
 
         // Создание регистрации на сессию
         Registration registration = new Registration();
@@ -127,13 +134,65 @@ public class RegistrationService {
         registration.setRegistrationDate(LocalDateTime.now());
         registration.setStatus(Registration.RegistrationStatus.CONFIRMED);
 
-        // Увеличиваем счетчик участников сессии
-        session.incrementParticipants();
-        sessionRepository.save(session);
+        // Окончательное решение о месте принимает БД. Счетчик перечитывается после отката,
+        // уже после возврата зарезервированного места - иначе оно добавилось бы к свежему значению
+        if (!participantCounterService.reserveSessionSeat(sessionId)) {
+            TransactionCallbacks.afterRollback(() -> seatInventoryService.resync(sessionId));
+            throw new RuntimeException("Session is full");
+        }
 
         return registrationRepository.save(registration);
     }
 
+    // Запись в лист ожидания сессии. Если место есть, регистрирует сразу.
+    @Transactional
+    public Registration joinWaitlist(Long participantId, Long sessionId, Integer priority) {
+        if (seatInventoryService.hasFreeSeat(sessionId)) {
+            return registerForSession(participantId, sessionId);
+        }
+
+        Participant participant = participantRepository.findById(participantId)
+                .orElseThrow(() -> new RuntimeException("Participant not found with id: " + participantId));
+
+        Session session = sessionRepository.findById(sessionId)
+                .orElseThrow(() -> new RuntimeException("Session not found with id: " + sessionId));
+
+        Event event = session.getEvent();
+        if (!event.isRegistrationOpen()) {
+            throw new RuntimeException("Registration for this event is closed");
+        }
+
+        if (registrationRepository.existsByParticipantIdAndSessionId(participantId, sessionId)) {
+            throw new RuntimeException("Participant already registered for this session");
+        }
+
+        // Место на самом событии занимается сразу, в очереди ждут только место в сессии
+        ensureEventRegistration(participantId, event.getId());
+
+        Registration registration = new Registration();
+        registration.setParticipant(participant);
+        registration.setSession(session);
+        registration.setEvent(event);
+        registration.setRegistrationDate(LocalDateTime.now());
+        registration.setStatus(Registration.RegistrationStatus.WAITLISTED);
+        registration.setWaitlistPriority(priority != null ? priority : 0);
+        registration.setWaitlistedAt(LocalDateTime.now());
+
+        registration = registrationRepository.save(registration);
+        waitlistService.enqueue(registration);
+        return registration;
+    }
+
+    private void ensureEventRegistration(Long participantId, Long eventId) {
+        Registration eventRegistration =
+                registrationRepository.findFirstByParticipantIdAndEventIdAndSessionIsNull(participantId, eventId);
+        if (eventRegistration == null ||
+                eventRegistration.getStatus() == Registration.RegistrationStatus.CANCELLED) {
+            // Если не зарегистрирован на событие, создаем регистрацию
+            registerForEvent(participantId, eventId);
+        }
+    }
+
     // Алиас для совместимости с контроллером
     @Transactional
     public Registration registerParticipantToSession(Long participantId, Long sessionId) {
@@ -149,24 +208,37 @@ public class RegistrationService {
             throw new RuntimeException("Registration already cancelled");
         }
 
-        // Сохраняем предыдущий статус
+        boolean wasWaitlisted = registration.getStatus() == Registration.RegistrationStatus.WAITLISTED;
         registration.setStatus(Registration.RegistrationStatus.CANCELLED);
 
         // Если это регистрация на событие, уменьшаем счетчик события
         if (registration.getSession() == null && registration.getEvent() != null) {
-            Event event = registration.getEvent();
-            event.decrementParticipants();
-            eventRepository.save(event);
+            participantCounterService.releaseEventSpot(registration.getEvent().getId());
         }
 
-        // Если это регистрация на сессию, уменьшаем счетчик сессии
-        if (registration.getSession() != null) {
-            Session session = registration.getSession();
-            session.decrementParticipants();
-            sessionRepository.save(session);
+        // Запись из листа ожидания места не занимала - только убираем ее из очереди
+        if (registration.getSession() != null && wasWaitlisted) {
+            waitlistService.remove(registration);
+        } else if (registration.getSession() != null) {
+            releaseSessionSeat(registration);
         }
 
         registrationRepository.save(registration);
+
+        // Освободившееся место сразу получает первый в листе ожидания
+        if (registration.getSession() != null && !wasWaitlisted) {
+            waitlistService.promoteNext(registration.getSession().getId());
+        }
+    }
+
+    private void releaseSessionSeat(Registration registration) {
+        Long sessionId = registration.getSession().getId();
+        Long participantId = registration.getParticipant().getId();
+        participantCounterService.releaseSessionSeat(sessionId);
+        TransactionCallbacks.afterCommit(() -> {
+            seatInventoryService.release(sessionId);
+            scheduleIndexService.releaseParticipant(participantId, sessionId);
+        });
     }
 
     // Дополнительные методы
@@ -183,11 +255,59 @@ public class RegistrationService {
         return registrationRepository.findByParticipantId(participantId);
     }
 
+    public CursorPage<RegistrationSummaryDTO> getRegistrationsBySession(Long sessionId, String cursor, Integer size) {
+        return KeysetPages.page(registrationRepository.findSummariesBySessionId(sessionId,
+                KeysetPages.afterId(cursor), KeysetPages.lookahead(size)), size, RegistrationSummaryDTO::getId);
+    }
+
+    public CursorPage<RegistrationSummaryDTO> getParticipantRegistrations(Long participantId, String cursor, Integer size) {
+        return KeysetPages.page(registrationRepository.findSummariesByParticipantId(participantId,
+                KeysetPages.afterId(cursor), KeysetPages.lookahead(size)), size, RegistrationSummaryDTO::getId);
+    }
+
     @Transactional
-    public Registration moveToWaitlist(Long registrationId) {
+    public Registration moveToWaitlist(Long registrationId, Integer priority) {
         Registration registration = getRegistrationById(registrationId);
+        if (registration.getStatus() == Registration.RegistrationStatus.WAITLISTED) {
+            throw new RuntimeException("Registration already waitlisted");
+        }
+        if (registration.getStatus() == Registration.RegistrationStatus.CANCELLED) {
+            throw new RuntimeException("Registration is cancelled");
+        }
+
+        if (priority != null) {
+            registration.setWaitlistPriority(priority);
+        }
         registration.setStatus(Registration.RegistrationStatus.WAITLISTED);
-        return registrationRepository.save(registration);
+        registration.setWaitlistedAt(LocalDateTime.now());
+
+        // Регистрация на событие без сессии: очереди нет, меняется только статус
+        if (registration.getSession() == null) {
+            return registrationRepository.save(registration);
+        }
+
+        releaseSessionSeat(registration);
+        registration = registrationRepository.save(registration);
+        // Место отдается тому, кто уже ждет; сама регистрация встает в очередь после коммита
+        waitlistService.promoteNext(registration.getSession().getId());
+        waitlistService.enqueue(registration);
+        return registration;
+    }
+
+    public RegistrationDTO getWaitlistPosition(Long registrationId) {
+        Registration registration = getRegistrationById(registrationId);
+        RegistrationDTO dto = new RegistrationDTO();
+        dto.setId(registration.getId());
+        dto.setRegistrationDate(registration.getRegistrationDate());
+        dto.setStatus(registration.getStatus().name());
+        dto.setWaitlistPosition(waitlistService.getPosition(registrationId));
+        dto.setParticipantId(registration.getParticipant().getId());
+        dto.setSessionId(registration.getSession() != null ? registration.getSession().getId() : null);
+        return dto;
+    }
+
+    public List<RegistrationDTO> getSessionWaitlist(Long sessionId) {
+        return waitlistService.getWaitlist(sessionId);
     }
 
     @Transactional
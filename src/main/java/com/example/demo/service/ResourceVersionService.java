@@ -0,0 +1,114 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.CursorPage;
+import com.example.demo.dto.SessionSummaryDTO;
+import com.example.demo.model.Event;
+import com.example.demo.model.Participant;
+import com.example.demo.model.Session;
+import com.example.demo.model.Speaker;
+import com.example.demo.repository.EventRepository;
+import com.example.demo.repository.ParticipantRepository;
+import com.example.demo.repository.SessionRepository;
+import com.example.demo.repository.SpeakerRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.DigestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+// Сильные ETag ресурсов по версиям строк (@Version). Для условного GET версии
+// выбираются узкими запросами-проекциями, без загрузки сущностей; тег ответа 200
+// вычисляется тем же способом по отданному представлению, поэтому не опережает тело.
+// Счетчики участников меняются в обход Hibernate и версию не увеличивают -
+// они входят в тег отдельно.
+@Service
+@RequiredArgsConstructor
+public class ResourceVersionService {
+    private final EventRepository eventRepository;
+    private final SessionRepository sessionRepository;
+    private final SpeakerRepository speakerRepository;
+    private final ParticipantRepository participantRepository;
+
+    @Transactional(readOnly = true)
+    public Optional<String> eventTag(Long id) {
+        return eventRepository.findVersionById(id)
+                .map(version -> tag(version.getVersion(), version.getCurrentParticipants()));
+    }
+
+    public String eventTag(Event event) {
+        return tag(event.getVersion(), event.getCurrentParticipants());
+    }
+
+    // Сессия сериализуется вместе с событием и спикером, а sessionOver зависит от текущего времени
+    @Transactional(readOnly = true)
+    public Optional<String> sessionTag(Long id) {
+        return sessionRepository.findVersionById(id)
+                .map(version -> tag(version.getVersion(), version.getCurrentParticipants(),
+                        ended(version.getEndTime()), version.getEventVersion(), version.getEventParticipants(),
+                        version.getSpeakerVersion()));
+    }
+
+    public String sessionTag(Session session) {
+        Event event = session.getEvent();
+        Speaker speaker = session.getSpeaker();
+        return tag(session.getVersion(), session.getCurrentParticipants(), ended(session.getEndTime()),
+                event.getVersion(), event.getCurrentParticipants(), speaker != null ? speaker.getVersion() : null);
+    }
+
+    @Transactional(readOnly = true)
+    public Optional<String> speakerTag(Long id) {
+        return speakerRepository.findVersionById(id).map(ResourceVersionService::tag);
+    }
+
+    public String speakerTag(Speaker speaker) {
+        return tag(speaker.getVersion());
+    }
+
+    @Transactional(readOnly = true)
+    public Optional<String> participantTag(Long id) {
+        return participantRepository.findVersionById(id).map(ResourceVersionService::tag);
+    }
+
+    public String participantTag(Participant participant) {
+        return tag(participant.getVersion());
+    }
+
+    // Страница SessionService.getSessionsByEvent: те же строки и курсор, но без остальных колонок
+    @Transactional(readOnly = true)
+    public Optional<String> eventSessionsTag(Long eventId, String cursor, Integer size) {
+        CursorPage<SessionRepository.RowVersionView> page = KeysetPages.page(
+                sessionRepository.findRowVersionsByEventId(eventId, KeysetPages.afterId(cursor),
+                        KeysetPages.lookahead(size)),
+                size, SessionRepository.RowVersionView::getId);
+        return Optional.of(pageTag(page.getItems().stream()
+                .map(row -> row(row.getId(), row.getVersion(), row.getCurrentParticipants())), page.getNextCursor()));
+    }
+
+    public String eventSessionsTag(CursorPage<SessionSummaryDTO> page) {
+        return pageTag(page.getItems().stream()
+                .map(row -> row(row.getId(), row.getVersion(), row.getCurrentParticipants())), page.getNextCursor());
+    }
+
+    private static boolean ended(LocalDateTime endTime) {
+        return endTime != null && LocalDateTime.now().isAfter(endTime);
+    }
+
+    private static String row(Long id, Long version, Integer currentParticipants) {
+        return id + "." + version + "." + currentParticipants;
+    }
+
+    private static String pageTag(Stream<String> rows, String nextCursor) {
+        return tag(rows.collect(Collectors.joining(":")), nextCursor);
+    }
+
+    private static String tag(Object... parts) {
+        String source = Arrays.stream(parts).map(String::valueOf).collect(Collectors.joining("|"));
+        return "\"" + DigestUtils.md5DigestAsHex(source.getBytes(StandardCharsets.UTF_8)) + "\"";
+    }
+}
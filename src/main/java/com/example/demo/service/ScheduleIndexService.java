@@ -0,0 +1,149 @@
+package com.example.demo.service;
+
+import com.example.demo.repository.RegistrationRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+// In-memory индекс занятого времени участников.
+// Все проверки пересечения расписаний участников выполняются здесь, без запросов к БД;
+// занятость спикеров проверяется в БД (SpeakerService, anti-join).
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ScheduleIndexService {
+    private final RegistrationRepository registrationRepository;
+
+    private final Map<Long, IntervalTree> participantSchedules = new ConcurrentHashMap<>();
+    // Участники каждой сессии - для переноса и отмены сессий
+    private final Map<Long, Set<Long>> sessionParticipants = new ConcurrentHashMap<>();
+    // Интервалы, занятые незавершенными транзакциями этого узла
+    private final Set<Booking> reservations = ConcurrentHashMap.newKeySet();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadFromDatabase() {
+        participantSchedules.clear();
+        sessionParticipants.clear();
+
+        registrationRepository.findActiveSessionBookings().forEach(row ->
+                bookParticipant((Long) row[0], (Long) row[1], (LocalDateTime) row[2], (LocalDateTime) row[3]));
+
+        log.info("Schedule index loaded for {} participants", participantSchedules.size());
+    }
+
+    @EventListener
+    public void onCacheReset(CacheReset reset) {
+        loadFromDatabase();
+    }
+
+    // Регистрации сессии изменены на другом узле: зафиксированные в БД записи добавляются
+    // к индексу, локальные резервы незавершенных транзакций остаются (их снимут собственные
+    // колбэки). Освобождаются только записи, которые до чтения БД уже не были резервами
+    // этого узла и которых в БД больше нет - их отменили на другом узле.
+    @EventListener
+    public void onSessionRegistrationsChanged(SessionRegistrationsChanged change) {
+        Long sessionId = change.sessionId();
+        Set<Long> settled = new HashSet<>(sessionParticipants.getOrDefault(sessionId, Set.of()));
+        settled.removeIf(participantId -> reservations.contains(new Booking(participantId, sessionId)));
+
+        registrationRepository.findActiveSessionBookingsBySessionId(sessionId).forEach(row -> {
+            settled.remove((Long) row[0]);
+            bookParticipant((Long) row[0], (Long) row[1], (LocalDateTime) row[2], (LocalDateTime) row[3]);
+        });
+
+        for (Long participantId : settled) {
+            if (!reservations.contains(new Booking(participantId, sessionId))) {
+                releaseParticipant(participantId, sessionId);
+            }
+        }
+    }
+
+    // Атомарно проверяет пересечение и занимает интервал участника.
+    // При откате текущей транзакции интервал освобождается.
+    public boolean tryBookParticipant(Long participantId, Long sessionId, LocalDateTime start, LocalDateTime end) {
+        IntervalTree schedule = participantSchedules.computeIfAbsent(participantId, id -> new IntervalTree());
+        synchronized (schedule) {
+            if (schedule.overlaps(start, end)) {
+                return false;
+            }
+            schedule.insert(sessionId, start, end);
+        }
+        sessionParticipants.computeIfAbsent(sessionId, id -> ConcurrentHashMap.newKeySet()).add(participantId);
+        Booking booking = new Booking(participantId, sessionId);
+        reservations.add(booking);
+        TransactionCallbacks.afterRollback(() -> releaseParticipant(participantId, sessionId));
+        TransactionCallbacks.afterCompletion(() -> reservations.remove(booking));
+        return true;
+    }
+
+    // Занят ли у участника интервал именно этой сессии
+    public boolean isParticipantBooked(Long participantId, Long sessionId) {
+        IntervalTree schedule = participantSchedules.get(participantId);
+        if (schedule == null) {
+            return false;
+        }
+        synchronized (schedule) {
+            return schedule.contains(sessionId);
+        }
+    }
+
+    public void releaseParticipant(Long participantId, Long sessionId) {
+        IntervalTree schedule = participantSchedules.get(participantId);
+        if (schedule != null) {
+            synchronized (schedule) {
+                schedule.remove(sessionId);
+            }
+        }
+        Set<Long> participants = sessionParticipants.get(sessionId);
+        if (participants != null) {
+            participants.remove(participantId);
+        }
+    }
+
+    // Перенос сессии: интервалы всех записанных участников сдвигаются
+    public void rescheduleSession(Long sessionId, LocalDateTime start, LocalDateTime end) {
+        forEachParticipantSchedule(sessionId, schedule -> schedule.insert(sessionId, start, end));
+    }
+
+    // Отмена сессии освобождает время участников
+    public void removeSession(Long sessionId) {
+        forEachParticipantSchedule(sessionId, schedule -> schedule.remove(sessionId));
+        sessionParticipants.remove(sessionId);
+    }
+
+    // Загрузка из БД: занимает интервал без проверки
+    private void bookParticipant(Long participantId, Long sessionId, LocalDateTime start, LocalDateTime end) {
+        IntervalTree schedule = participantSchedules.computeIfAbsent(participantId, id -> new IntervalTree());
+        synchronized (schedule) {
+            schedule.insert(sessionId, start, end);
+        }
+        sessionParticipants.computeIfAbsent(sessionId, id -> ConcurrentHashMap.newKeySet()).add(participantId);
+    }
+
+    private record Booking(Long participantId, Long sessionId) {
+    }
+
+    private void forEachParticipantSchedule(Long sessionId, Consumer<IntervalTree> action) {
+        Set<Long> participants = sessionParticipants.get(sessionId);
+        if (participants == null) {
+            return;
+        }
+        for (Long participantId : participants) {
+            IntervalTree schedule = participantSchedules.get(participantId);
+            if (schedule != null) {
+                synchronized (schedule) {
+                    action.accept(schedule);
+                }
+            }
+        }
+    }
+}
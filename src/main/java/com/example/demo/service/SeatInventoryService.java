@@ -0,0 +1,138 @@
+package com.example.demo.service;
+
+import com.example.demo.config.PrimaryRead;
+import com.example.demo.repository.SessionRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// In-memory учет свободных мест в сессиях.
+// Отсекает запросы в заполненные сессии без обращения к БД; окончательное
+// решение принимает условный UPDATE sessions.current_participants.
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SeatInventoryService {
+    private final SessionRepository sessionRepository;
+
+    private final Map<Long, SeatCounter> counters = new ConcurrentHashMap<>();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadFromDatabase() {
+        counters.clear();
+        sessionRepository.findAllSeatViews().forEach(view ->
+                counters.put(view.getId(), new SeatCounter(view)));
+        log.info("Seat inventory loaded for {} sessions", counters.size());
+    }
+
+    @EventListener
+    public void onCacheReset(CacheReset reset) {
+        loadFromDatabase();
+    }
+
+    // Места сессии заняты или освобождены на другом узле
+    @EventListener
+    public void onSessionRegistrationsChanged(SessionRegistrationsChanged change) {
+        resync(change.sessionId());
+    }
+
+    // Резервирует место; false, если сессия заполнена
+    public boolean tryReserve(Long sessionId) {
+        return getCounter(sessionId).tryAcquire();
+    }
+
+    // Есть ли свободное место, без резервирования
+    public boolean hasFreeSeat(Long sessionId) {
+        return getCounter(sessionId).hasFreeSeat();
+    }
+
+    // Событие сессии без обращения к БД (для маршрутизации по событиям)
+    public Long getEventId(Long sessionId) {
+        return getCounter(sessionId).eventId;
+    }
+
+    public void release(Long sessionId) {
+        SeatCounter counter = counters.get(sessionId);
+        if (counter != null) {
+            counter.release();
+        }
+    }
+
+    public void updateCapacity(Long sessionId, Integer maxCapacity) {
+        SeatCounter counter = counters.get(sessionId);
+        if (counter != null) {
+            counter.maxCapacity = maxCapacity;
+        }
+    }
+
+    // Перечитывает счетчик сессии из БД, если in-memory значение разошлось с ней
+    public void resync(Long sessionId) {
+        sessionRepository.findSeatViewById(sessionId).ifPresent(view ->
+                counters.put(sessionId, new SeatCounter(view)));
+    }
+
+    // Периодическая сверка с БД (изменения с других узлов, ручные правки)
+    @Scheduled(fixedDelayString = "${conference.seat-inventory.reconcile-interval-ms:30000}")
+    @PrimaryRead
+    public void reconcile() {
+        sessionRepository.findAllSeatViews().forEach(view -> {
+            SeatCounter counter = counters.get(view.getId());
+            if (counter != null) {
+                counter.maxCapacity = view.getMaxCapacity();
+                counter.taken.set(view.getCurrentParticipants() != null ? view.getCurrentParticipants() : 0);
+            }
+        });
+    }
+
+    private SeatCounter getCounter(Long sessionId) {
+        SeatCounter counter = counters.computeIfAbsent(sessionId, id ->
+                sessionRepository.findSeatViewById(id)
+                        .map(SeatCounter::new)
+                        .orElse(null));
+        if (counter == null) {
+            throw new RuntimeException("Session not found with id: " + sessionId);
+        }
+        return counter;
+    }
+
+    private static final class SeatCounter {
+        private final Long eventId;
+        private final AtomicInteger taken;
+        private volatile Integer maxCapacity;
+
+        private SeatCounter(SessionRepository.SeatView view) {
+            this.eventId = view.getEventId();
+            this.maxCapacity = view.getMaxCapacity();
+            this.taken = new AtomicInteger(view.getCurrentParticipants() != null ? view.getCurrentParticipants() : 0);
+        }
+
+        private boolean hasFreeSeat() {
+            Integer capacity = maxCapacity;
+            return capacity == null || taken.get() < capacity;
+        }
+
+        private boolean tryAcquire() {
+            while (true) {
+                int current = taken.get();
+                Integer capacity = maxCapacity;
+                if (capacity != null && current >= capacity) {
+                    return false;
+                }
+                if (taken.compareAndSet(current, current + 1)) {
+                    return true;
+                }
+            }
+        }
+
+        private void release() {
+            taken.updateAndGet(current -> current > 0 ? current - 1 : 0);
+        }
+    }
+}
@@ -0,0 +1,7 @@
+package com.example.demo.service;
+
+// Доменное событие: изменилась сессия. eventId не задан, когда изменились только
+// регистрации сессии - счетчик участников или лист ожидания (состав сессий события прежний).
+// Публикуется внутри транзакции изменения.
+public record SessionChanged(Long sessionId, Long eventId) {
+}
@@ -0,0 +1,7 @@
+package com.example.demo.service;
+
+// Регистрации сессии (места, лист ожидания) изменены на другом узле: локальные
+// очереди, счетчики мест и индекс расписаний перечитывают сессию из БД.
+// Публикуется CacheCoherenceService вне транзакции.
+public record SessionRegistrationsChanged(Long sessionId) {
+}
@@ -1,9 +1,14 @@
 package com.example.demo.service;
 
+import com.example.demo.dto.CursorPage;
+import com.example.demo.dto.SessionFilterDTO;
+import com.example.demo.dto.SessionSummaryDTO;
 import com.example.demo.model.*;
 import com.example.demo.repository.*;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -13,20 +18,28 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class SessionService {
     private final SessionRepository sessionRepository;
-    private final RegistrationService registrationService;
     private final EventRepository eventRepository;
     private final SpeakerRepository speakerRepository;
+    private final ParticipantRepository participantRepository;
+    private final SeatInventoryService seatInventoryService;
+    private final ScheduleIndexService scheduleIndexService;
+    private final WaitlistService waitlistService;
+    private final ApplicationEventPublisher eventPublisher;
 
     // CRUD методы
-    public List<Session> getAllSessions() {
-        return sessionRepository.findAll();
+    @Transactional(readOnly = true)
+    public CursorPage<SessionSummaryDTO> getSessions(String cursor, Integer size) {
+        return KeysetPages.page(sessionRepository.findSummaries(
+                KeysetPages.afterId(cursor), KeysetPages.lookahead(size)), size, SessionSummaryDTO::getId);
     }
 
+    @Transactional(readOnly = true)
     public Session getSessionById(Long id) {
         return sessionRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Session not found"));
     }
 
+    @Transactional
     public Session createSession(Session session) {
         if (session.getEvent() == null || session.getEvent().getId() == null) {
             throw new RuntimeException("Event is required");
@@ -43,9 +56,10 @@ public class SessionService {
             session.setSpeaker(speaker);
         }
 
-        return sessionRepository.save(session);
+        return changed(syncSchedule(sessionRepository.save(session)));
     }
 
+    @Transactional
     public Session updateSession(Long id, Session sessionDetails) {
         Session session = getSessionById(id);
 
@@ -63,6 +77,8 @@ public class SessionService {
         }
         if (sessionDetails.getMaxCapacity() != null) {
             session.setMaxCapacity(sessionDetails.getMaxCapacity());
+            TransactionCallbacks.afterCommit(() ->
+                    seatInventoryService.updateCapacity(id, sessionDetails.getMaxCapacity()));
         }
         if (sessionDetails.getRoomNumber() != null) {
             session.setRoomNumber(sessionDetails.getRoomNumber());
@@ -77,37 +93,55 @@ public class SessionService {
             session.setRequiresRegistration(sessionDetails.getRequiresRegistration());
         }
 
-        return sessionRepository.save(session);
+        Session saved = changed(syncSchedule(sessionRepository.save(session)));
+        if (sessionDetails.getMaxCapacity() != null) {
+            // Новые места получают ожидающие в той же транзакции: после коммита
+            // их изменения уже некому зафиксировать
+            waitlistService.promoteWhileSeatsAvailable(id);
+        }
+        return saved;
     }
 
+    @Transactional
     public void deleteSession(Long id) {
         Session session = getSessionById(id);
         session.setStatus(Session.SessionStatus.CANCELLED);
-        sessionRepository.save(session);
+        changed(syncSchedule(sessionRepository.save(session)));
     }
 
     // Бизнес-операции
 
     // Исправленный метод (название должно совпадать с контроллером)
+    @Transactional(readOnly = true)
     public List<Session> getSessionsByEvent(Long eventId) {
         return sessionRepository.findByEventId(eventId);
     }
 
     // Алиас для совместимости с контроллером
+    @Transactional(readOnly = true)
     public List<Session> getSessionsByEventId(Long eventId) {
         return getSessionsByEvent(eventId);
     }
 
+    @Transactional(readOnly = true)
+    public CursorPage<SessionSummaryDTO> getSessionsByEvent(Long eventId, String cursor, Integer size) {
+        return KeysetPages.page(sessionRepository.findSummariesByEventId(eventId,
+                KeysetPages.afterId(cursor), KeysetPages.lookahead(size)), size, SessionSummaryDTO::getId);
+    }
+
+    @Transactional(readOnly = true)
     public List<Session> getSessionsWithAvailableSeats() {
         return sessionRepository.findSessionsWithAvailableSeats();
     }
 
     // Алиас для совместимости с контроллером
+    @Transactional(readOnly = true)
     public List<Session> getAvailableSessions() {
         return getSessionsWithAvailableSeats();
     }
 
     // Этот метод не должен принимать параметров
+    @Transactional(readOnly = true)
     public List<Session> getUpcomingSessions() {
         return sessionRepository.findSessionsBetweenDates(
                 LocalDateTime.now(),
@@ -115,12 +149,35 @@ public class SessionService {
         );
     }
 
+    @Transactional(readOnly = true)
     public List<Session> getSessionsBySpeaker(Long speakerId) {
         return sessionRepository.findBySpeakerId(speakerId);
     }
 
+    @Transactional(readOnly = true)
+    public CursorPage<SessionSummaryDTO> getSessionsBySpeaker(Long speakerId, String cursor, Integer size) {
+        return KeysetPages.page(sessionRepository.findSummariesBySpeakerId(speakerId,
+                KeysetPages.afterId(cursor), KeysetPages.lookahead(size)), size, SessionSummaryDTO::getId);
+    }
+
+    @Transactional(readOnly = true)
+    public CursorPage<SessionSummaryDTO> searchSessions(SessionFilterDTO filter, String cursor, Integer size) {
+        return KeysetPages.page(KeysetPages.scroll(sessionRepository,
+                SessionSpecifications.matching(filter), cursor, size).map(this::toSummary));
+    }
+
+    // Идентификаторы связей берутся из прокси, без их загрузки
+    private SessionSummaryDTO toSummary(Session session) {
+        return new SessionSummaryDTO(session.getId(), session.getTitle(), session.getDescription(),
+                session.getStartTime(), session.getEndTime(), session.getMaxCapacity(),
+                session.getCurrentParticipants(), session.getRoomNumber(), session.getType(), session.getStatus(),
+                session.getRequiresRegistration(), session.getEvent().getId(),
+                session.getSpeaker() != null ? session.getSpeaker().getId() : null, session.getVersion());
+    }
+
     // Дополнительные методы для контроллера
 
+    @Transactional(readOnly = true)
     public boolean checkRoomAvailability(Long sessionId, LocalDateTime startTime, LocalDateTime endTime) {
         Session session = getSessionById(sessionId);
 
@@ -141,6 +198,7 @@ public class SessionService {
         return conflictingSessions.isEmpty();
     }
 
+    @Transactional
     public Session updateSessionCapacity(Long sessionId, Integer newCapacity) {
         Session session = getSessionById(sessionId);
 
@@ -149,9 +207,15 @@ public class SessionService {
         }
 
         session.setMaxCapacity(newCapacity);
-        return sessionRepository.save(session);
+        Session saved = sessionRepository.save(session);
+        eventPublisher.publishEvent(new SessionChanged(sessionId, session.getEvent().getId()));
+        // Новые места получают ожидающие в листе ожидания - в той же транзакции
+        waitlistService.promoteWhileSeatsAvailable(sessionId);
+        TransactionCallbacks.afterCommit(() -> seatInventoryService.updateCapacity(sessionId, newCapacity));
+        return saved;
     }
 
+    @Transactional
     public Session duplicateSession(Long sessionId) {
         Session original = getSessionById(sessionId);
 
@@ -168,22 +232,38 @@ public class SessionService {
         duplicate.setEvent(original.getEvent());
         duplicate.setSpeaker(original.getSpeaker());
 
-        return sessionRepository.save(duplicate);
+        return changed(syncSchedule(sessionRepository.save(duplicate)));
     }
 
-    public List<Session> getFutureSessionsBySpeaker(Long speakerId) {
-        List<Session> sessions = sessionRepository.findBySpeakerId(speakerId);
+    // Программа события пересобирается после коммита (AgendaSnapshotService);
+    // вместимость и счетчик в нее не входят
+    private Session changed(Session session) {
+        Long eventId = session.getEvent().getId();
+        eventPublisher.publishEvent(new SessionChanged(session.getId(), eventId));
+        eventPublisher.publishEvent(new AgendaChanged(eventId));
+        return session;
+    }
 
-        return sessions.stream()
-                .filter(s -> s.getStartTime().isAfter(LocalDateTime.now()))
-                .collect(Collectors.toList());
+    // Поддержка индекса расписаний в актуальном состоянии после изменения сессии
+    private Session syncSchedule(Session session) {
+        Long sessionId = session.getId();
+        if (session.getStatus() == Session.SessionStatus.CANCELLED) {
+            TransactionCallbacks.afterCommit(() -> scheduleIndexService.removeSession(sessionId));
+        } else {
+            LocalDateTime start = session.getStartTime();
+            LocalDateTime end = session.getEndTime();
+            TransactionCallbacks.afterCommit(() -> scheduleIndexService.rescheduleSession(sessionId, start, end));
+        }
+        return session;
     }
 
-    public List<Participant> getSessionParticipants(Long sessionId) {
-        List<Registration> registrations = registrationService.getRegistrationsBySession(sessionId);
+    @Transactional(readOnly = true)
+    public List<Session> getFutureSessionsBySpeaker(Long speakerId) {
+        return sessionRepository.findBySpeakerIdStartingAfter(speakerId, LocalDateTime.now());
+    }
 
-        return registrations.stream()
-                .map(Registration::getParticipant)
-                .collect(Collectors.toList());
+    @Transactional(readOnly = true)
+    public List<Participant> getSessionParticipants(Long sessionId) {
+        return participantRepository.findRosterBySessionId(sessionId);
     }
 }
\ No newline at end of file
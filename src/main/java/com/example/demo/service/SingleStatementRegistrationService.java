@@ -0,0 +1,211 @@
+package com.example.demo.service;
+
+import com.example.demo.model.Event;
+import com.example.demo.model.Registration;
+import com.example.demo.model.Session;
+import com.example.demo.repository.EventRepository;
+import com.example.demo.repository.ParticipantRepository;
+import com.example.demo.repository.SessionRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.sql.DatabaseMetaData;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+// Регистрация на сессию одним SQL-запросом (PostgreSQL): все проверки, занятие мест
+// и вставка регистраций выполняются data-modifying CTE за один round-trip.
+// На других СУБД (H2) не используется - RegistrationService работает через JPA.
+@Service
+@Slf4j
+public class SingleStatementRegistrationService {
+
+    // chk - снимок проверок; spot/seat - условные UPDATE счетчиков события и сессии;
+    // ins_event/ins - вставка регистраций; итоговый SELECT возвращает id и причину отказа.
+    // Все части видят один снимок, поэтому гонку между spot и seat ловит вызывающий код
+    // по отсутствию id регистрации и откатывает транзакцию. duplicate и conflict под
+    // READ COMMITTED параллельных запросов не видят: на этом узле их исключает интервал,
+    // занятый в ScheduleIndexService до запроса, между узлами повтор ловит уникальный
+    // индекс uk_registrations_participant_session (V7).
+    private static final String REGISTER_SQL = """
+            WITH chk AS (
+                SELECT s.id AS session_id, s.event_id,
+                       EXISTS (SELECT 1 FROM participants p WHERE p.id = :participantId) AS participant_exists,
+                       COALESCE(e.registration_open, TRUE) AS registration_open,
+                       EXISTS (SELECT 1 FROM registrations r
+                               WHERE r.participant_id = :participantId AND r.session_id = s.id) AS duplicate,
+                       EXISTS (SELECT 1 FROM registrations r JOIN sessions o ON o.id = r.session_id
+                               WHERE r.participant_id = :participantId
+                                 AND r.status NOT IN ('CANCELLED', 'WAITLISTED')
+                                 AND o.status <> 'CANCELLED'
+                                 AND o.start_time < s.end_time AND s.start_time < o.end_time) AS conflict,
+                       (s.max_capacity IS NULL OR COALESCE(s.current_participants, 0) < s.max_capacity) AS has_seat,
+                       NOT EXISTS (SELECT 1 FROM registrations r
+                                   WHERE r.participant_id = :participantId AND r.event_id = s.event_id
+                                     AND r.session_id IS NULL AND r.status <> 'CANCELLED') AS needs_event
+                FROM sessions s
+                JOIN events e ON e.id = s.event_id
+                WHERE s.id = :sessionId
+            ),
+            ok AS (
+                SELECT * FROM chk
+                WHERE participant_exists AND registration_open AND NOT duplicate AND NOT conflict AND has_seat
+            ),
+            spot AS (
+                UPDATE events e SET current_participants = COALESCE(e.current_participants, 0) + 1
+                FROM ok
+                WHERE e.id = ok.event_id AND ok.needs_event
+                  AND (e.max_participants IS NULL OR COALESCE(e.current_participants, 0) < e.max_participants)
+                RETURNING e.id
+            ),
+            seat AS (
+                UPDATE sessions s SET current_participants = COALESCE(s.current_participants, 0) + 1
+                FROM ok
+                WHERE s.id = ok.session_id
+                  AND (NOT ok.needs_event OR EXISTS (SELECT 1 FROM spot))
+                  AND (s.max_capacity IS NULL OR COALESCE(s.current_participants, 0) < s.max_capacity)
+                RETURNING s.id
+            ),
+            ins_event AS (
+                INSERT INTO registrations (participant_id, session_id, event_id, status, registration_date, waitlist_priority)
+                SELECT :participantId, NULL, spot.id, 'CONFIRMED', :now, 0 FROM spot
+                RETURNING id
+            ),
+            ins AS (
+                INSERT INTO registrations (participant_id, session_id, event_id, status, registration_date, waitlist_priority)
+                SELECT :participantId, seat.id, ok.event_id, 'CONFIRMED', :now, 0 FROM seat, ok
+                RETURNING id
+            )
+            SELECT (SELECT id FROM ins) AS registration_id,
+                   (SELECT event_id FROM chk) AS event_id,
+                   CASE
+                       WHEN NOT EXISTS (SELECT 1 FROM chk) THEN 'SESSION_NOT_FOUND'
+                       WHEN NOT (SELECT participant_exists FROM chk) THEN 'PARTICIPANT_NOT_FOUND'
+                       WHEN NOT (SELECT registration_open FROM chk) THEN 'CLOSED'
+                       WHEN (SELECT duplicate FROM chk) THEN 'DUPLICATE'
+                       WHEN (SELECT conflict FROM chk) THEN 'CONFLICT'
+                       WHEN NOT (SELECT has_seat FROM chk) THEN 'SESSION_FULL'
+                       WHEN (SELECT needs_event FROM chk) AND NOT EXISTS (SELECT 1 FROM spot) THEN 'EVENT_FULL'
+                       WHEN NOT EXISTS (SELECT 1 FROM seat) THEN 'SESSION_FULL'
+                       ELSE 'OK'
+                   END AS outcome
+            """;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final ParticipantRepository participantRepository;
+    private final SessionRepository sessionRepository;
+    private final EventRepository eventRepository;
+    private final ScheduleIndexService scheduleIndexService;
+    private final EntityCacheInvalidator entityCacheInvalidator;
+    private final ApplicationEventPublisher eventPublisher;
+    private final boolean enabled;
+
+    private record Outcome(Long registrationId, Long eventId, String code) {
+    }
+
+    public SingleStatementRegistrationService(NamedParameterJdbcTemplate jdbcTemplate,
+                                              ParticipantRepository participantRepository,
+                                              SessionRepository sessionRepository,
+                                              EventRepository eventRepository,
+                                              ScheduleIndexService scheduleIndexService,
+                                              EntityCacheInvalidator entityCacheInvalidator,
+                                              ApplicationEventPublisher eventPublisher,
+                                              DataSource dataSource,
+                                              @Value("${conference.registration.single-statement:true}") boolean allowed) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.participantRepository = participantRepository;
+        this.sessionRepository = sessionRepository;
+        this.eventRepository = eventRepository;
+        this.scheduleIndexService = scheduleIndexService;
+        this.entityCacheInvalidator = entityCacheInvalidator;
+        this.eventPublisher = eventPublisher;
+        this.enabled = allowed && isPostgres(dataSource);
+        log.info("Single-statement session registration {}", enabled ? "enabled" : "disabled");
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    // Вызывается внутри транзакции RegistrationService; при отказе бросает исключение,
+    // откатывающее частично выполненные изменения
+    public Registration registerForSession(Long participantId, Long sessionId) {
+        // Время сессии - из кэша второго уровня; интервал занимается до запроса
+        // и освобождается при откате, как и в RegistrationService
+        Session session = sessionRepository.findById(sessionId)
+                .orElseThrow(() -> new RuntimeException("Session not found with id: " + sessionId));
+        if (!scheduleIndexService.tryBookParticipant(participantId, sessionId,
+                session.getStartTime(), session.getEndTime())) {
+            throw new RuntimeException(scheduleIndexService.isParticipantBooked(participantId, sessionId)
+                    ? "Participant already registered for this session"
+                    : "Participant has time conflict with another session");
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("participantId", participantId)
+                .addValue("sessionId", sessionId)
+                .addValue("now", Timestamp.valueOf(now));
+
+        Outcome outcome;
+        try {
+            outcome = jdbcTemplate.queryForObject(REGISTER_SQL, params, (rs, rowNum) -> new Outcome(
+                    rs.getObject("registration_id", Long.class),
+                    rs.getObject("event_id", Long.class),
+                    rs.getString("outcome")));
+        } catch (DuplicateKeyException e) {
+            // Параллельная регистрация того же участника на другом узле
+            throw new RuntimeException("Participant already registered for this session");
+        }
+
+        if (outcome.registrationId() == null) {
+            throw new RuntimeException(failureMessage(outcome.code(), participantId, sessionId));
+        }
+
+        // Счетчики сессии и события изменены в обход Hibernate
+        entityCacheInvalidator.invalidate(Session.class, sessionId);
+        entityCacheInvalidator.invalidate(Event.class, outcome.eventId());
+        eventPublisher.publishEvent(new EventChanged(outcome.eventId(), true));
+        eventPublisher.publishEvent(new SessionChanged(sessionId, null));
+
+        // Связи - ссылки без запросов к БД
+        Registration registration = new Registration();
+        registration.setId(outcome.registrationId());
+        registration.setParticipant(participantRepository.getReferenceById(participantId));
+        registration.setSession(sessionRepository.getReferenceById(sessionId));
+        registration.setEvent(eventRepository.getReferenceById(outcome.eventId()));
+        registration.setRegistrationDate(now);
+        registration.setStatus(Registration.RegistrationStatus.CONFIRMED);
+        return registration;
+    }
+
+    private static String failureMessage(String code, Long participantId, Long sessionId) {
+        return switch (code) {
+            case "SESSION_NOT_FOUND" -> "Session not found with id: " + sessionId;
+            case "PARTICIPANT_NOT_FOUND" -> "Participant not found with id: " + participantId;
+            case "CLOSED" -> "Registration for this event is closed";
+            case "DUPLICATE" -> "Participant already registered for this session";
+            case "CONFLICT" -> "Participant has time conflict with another session";
+            case "EVENT_FULL" -> "Event is full";
+            default -> "Session is full";
+        };
+    }
+
+    private static boolean isPostgres(DataSource dataSource) {
+        try {
+            String product = JdbcUtils.extractDatabaseMetaData(dataSource, DatabaseMetaData::getDatabaseProductName);
+            return "PostgreSQL".equalsIgnoreCase(product);
+        } catch (MetaDataAccessException e) {
+            log.warn("Could not detect database product, single-statement registration disabled", e);
+            return false;
+        }
+    }
+}
@@ -0,0 +1,5 @@
+package com.example.demo.service;
+
+// Доменное событие: изменился спикер. Публикуется внутри транзакции изменения.
+public record SpeakerChanged(Long speakerId) {
+}
@@ -1,38 +1,74 @@
 package com.example.demo.service;
 
+import com.example.demo.dto.CursorPage;
+import com.example.demo.dto.SpeakerAvailabilityDTO;
+import com.example.demo.dto.SpeakerFilterDTO;
+import com.example.demo.dto.TimeSlotDTO;
 import com.example.demo.model.Session;
 import com.example.demo.model.Speaker;
 import com.example.demo.repository.SessionRepository;
 import com.example.demo.repository.SpeakerRepository;
+import com.example.demo.repository.SpeakerSpecifications;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.sql.Timestamp;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
 
 @Service
 @Transactional
 public class SpeakerService {
+    private static final int MAX_AVAILABILITY_SLOTS = 200;
+
+    // Доступность всех спикеров во всех слотах одним запросом: каждая пара (спикер, слот)
+    // проверяется anti-join с пересекающимися действующими сессиями спикера
+    private static final String AVAILABILITY_SQL = """
+            SELECT sp.id AS speaker_id, slot.idx AS slot_idx,
+                   NOT EXISTS (SELECT 1 FROM sessions s
+                               WHERE s.speaker_id = sp.id AND s.status <> 'CANCELLED'
+                                 AND s.start_time < slot.end_time AND s.end_time > slot.start_time) AS available
+            FROM speakers sp
+            CROSS JOIN (VALUES %s) AS slot (idx, start_time, end_time)
+            ORDER BY sp.id, slot.idx
+            """;
+
     private final SpeakerRepository speakerRepository;
     private final SessionRepository sessionRepository;
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final ApplicationEventPublisher eventPublisher;
 
     public SpeakerService(SpeakerRepository speakerRepository,
-                          SessionRepository sessionRepository) {
+                          SessionRepository sessionRepository,
+                          NamedParameterJdbcTemplate jdbcTemplate,
+                          ApplicationEventPublisher eventPublisher) {
         this.speakerRepository = speakerRepository;
         this.sessionRepository = sessionRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.eventPublisher = eventPublisher;
     }
 
     public Speaker createSpeaker(Speaker speaker) {
-        return speakerRepository.save(speaker);
+        return changed(speakerRepository.save(speaker));
     }
 
+    @Transactional(readOnly = true)
     public Speaker getSpeakerById(Long id) {
         return speakerRepository.findById(id).orElse(null);
     }
 
-    public List<Speaker> getAllSpeakers() {
-        return speakerRepository.findAll();
+    @Transactional(readOnly = true)
+    public CursorPage<Speaker> getSpeakers(String cursor, Integer size) {
+        return KeysetPages.page(speakerRepository.findAllBy(
+                KeysetPages.position(cursor), KeysetPages.limit(size), KeysetPages.BY_ID));
     }
 
     public Speaker updateSpeaker(Long id, Speaker speakerDetails) {
@@ -43,29 +79,47 @@ public class SpeakerService {
             speaker.setBio(speakerDetails.getBio());
             speaker.setCompany(speakerDetails.getCompany());
             speaker.setSpecialization(speakerDetails.getSpecialization());
-            return speakerRepository.save(speaker);
+            agendasChanged(id);
+            return changed(speakerRepository.save(speaker));
         }
         return null;
     }
 
     public void deleteSpeaker(Long id) {
+        agendasChanged(id);
         speakerRepository.deleteById(id);
+        eventPublisher.publishEvent(new SpeakerChanged(id));
+    }
+
+    private Speaker changed(Speaker speaker) {
+        eventPublisher.publishEvent(new SpeakerChanged(speaker.getId()));
+        return speaker;
+    }
+
+    // Сведения о спикере входят в программы событий с его сессиями (AgendaSnapshotService);
+    // рейтинг и признак витрины в них не входят
+    private void agendasChanged(Long speakerId) {
+        sessionRepository.findEventIdsBySpeakerId(speakerId)
+                .forEach(eventId -> eventPublisher.publishEvent(new AgendaChanged(eventId)));
     }
 
+    @Transactional(readOnly = true)
+    public CursorPage<Speaker> searchSpeakers(SpeakerFilterDTO filter, String cursor, Integer size) {
+        return KeysetPages.page(KeysetPages.scroll(speakerRepository,
+                SpeakerSpecifications.matching(filter), cursor, size));
+    }
+
+    @Transactional(readOnly = true)
     public List<Speaker> getFeaturedSpeakers() {
-        return speakerRepository.findAll().stream()
-                .filter(speaker -> speaker.getIsFeatured() != null &&
-                        speaker.getIsFeatured())
-                .toList();
+        return speakerRepository.findByIsFeaturedTrue();
     }
 
+    @Transactional(readOnly = true)
     public List<Speaker> getTopRatedSpeakers(Double minRating) {
-        return speakerRepository.findAll().stream()
-                .filter(speaker -> speaker.getAverageRating() != null &&
-                        speaker.getAverageRating() >= minRating)
-                .toList();
+        return speakerRepository.findByAverageRatingGreaterThanEqualOrderByAverageRatingDesc(minRating);
     }
 
+    @Transactional(readOnly = true)
     public List<Session> getSpeakerSessions(Long speakerId) {
         return sessionRepository.findBySpeakerId(speakerId);
     }
@@ -74,7 +128,7 @@ public class SpeakerService {
         Speaker speaker = getSpeakerById(speakerId);
         if (speaker != null) {
             speaker.addRating(rating);
-            speakerRepository.save(speaker);
+            changed(speakerRepository.save(speaker));
         }
     }
 
@@ -83,32 +137,46 @@ public class SpeakerService {
         if (speaker != null) {
             Boolean currentStatus = speaker.getIsFeatured();
             speaker.setIsFeatured(currentStatus == null || !currentStatus);
-            return speakerRepository.save(speaker);
+            return changed(speakerRepository.save(speaker));
         }
         return null;
     }
 
+    @Transactional(readOnly = true)
     public List<Speaker> getAvailableSpeakers(String startTime, String endTime) {
         DateTimeFormatter formatter = DateTimeFormatter.ISO_DATE_TIME;
         LocalDateTime start = LocalDateTime.parse(startTime, formatter);
         LocalDateTime end = LocalDateTime.parse(endTime, formatter);
 
-        return speakerRepository.findAll().stream()
-                .filter(speaker -> isSpeakerAvailable(speaker, start, end))
-                .toList();
+        return speakerRepository.findAvailable(start, end);
     }
 
-    private boolean isSpeakerAvailable(Speaker speaker, LocalDateTime start, LocalDateTime end) {
-        List<Session> sessions = sessionRepository.findBySpeakerId(speaker.getId());
-        return sessions.stream()
-                .noneMatch(session -> isTimeOverlap(session, start, end));
-    }
+    // Матрица доступности спикеров по списку слотов за один запрос к БД
+    @Transactional(readOnly = true)
+    public SpeakerAvailabilityDTO getSpeakerAvailability(List<TimeSlotDTO> slots) {
+        if (slots == null || slots.isEmpty() || slots.size() > MAX_AVAILABILITY_SLOTS) {
+            throw new RuntimeException("Invalid number of time slots, expected 1 to " + MAX_AVAILABILITY_SLOTS);
+        }
 
-    private boolean isTimeOverlap(Session session, LocalDateTime start, LocalDateTime end) {
-        if (session.getStartTime() == null || session.getEndTime() == null) {
-            return false;
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        StringJoiner values = new StringJoiner(", ");
+        for (int i = 0; i < slots.size(); i++) {
+            TimeSlotDTO slot = slots.get(i);
+            if (slot.getStartTime() == null || slot.getEndTime() == null
+                    || !slot.getStartTime().isBefore(slot.getEndTime())) {
+                throw new RuntimeException("Invalid time slot: " + slot);
+            }
+            values.add("(" + i + ", CAST(:start" + i + " AS TIMESTAMP), CAST(:end" + i + " AS TIMESTAMP))");
+            params.addValue("start" + i, Timestamp.valueOf(slot.getStartTime()));
+            params.addValue("end" + i, Timestamp.valueOf(slot.getEndTime()));
         }
-        return session.getStartTime().isBefore(end) &&
-                start.isBefore(session.getEndTime());
+
+        // Строки упорядочены по спикеру и слоту, поэтому значения добавляются в порядке слотов
+        Map<Long, List<Boolean>> available = new LinkedHashMap<>();
+        jdbcTemplate.query(AVAILABILITY_SQL.formatted(values), params, rs -> {
+            available.computeIfAbsent(rs.getLong("speaker_id"), id -> new ArrayList<>(slots.size()))
+                    .add(rs.getBoolean("available"));
+        });
+        return new SpeakerAvailabilityDTO(slots, available);
     }
 }
\ No newline at end of file
@@ -0,0 +1,206 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.RegistrationDTO;
+import com.example.demo.model.Registration;
+import com.example.demo.model.Session;
+import com.example.demo.repository.RegistrationRepository;
+import com.example.demo.repository.SessionRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+// Листы ожидания сессий: упорядоченная очередь на каждую сессию
+// (выше приоритет, затем раньше запрос). Освободившееся место отдается
+// голове очереди в той же транзакции, которая его освободила. Очереди других узлов
+// перечитывают сессию из БД по SessionRegistrationsChanged и сами продвигают ее,
+// если место освободилось там, где ожидающего еще не знали.
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class WaitlistService {
+    private static final Comparator<WaitlistEntry> QUEUE_ORDER = Comparator
+            .comparingInt(WaitlistEntry::priority).reversed()
+            .thenComparing(WaitlistEntry::requestedAt)
+            .thenComparing(WaitlistEntry::registrationId);
+
+    private final RegistrationRepository registrationRepository;
+    private final SessionRepository sessionRepository;
+    private final SeatInventoryService seatInventoryService;
+    private final ScheduleIndexService scheduleIndexService;
+    private final ParticipantCounterService participantCounterService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final PlatformTransactionManager transactionManager;
+
+    private final Map<Long, NavigableSet<WaitlistEntry>> queues = new ConcurrentHashMap<>();
+    private final Map<Long, WaitlistEntry> entriesByRegistration = new ConcurrentHashMap<>();
+
+    public record WaitlistEntry(Long registrationId, Long participantId, Long sessionId,
+                                int priority, LocalDateTime requestedAt) {
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadFromDatabase() {
+        queues.clear();
+        entriesByRegistration.clear();
+        registrationRepository.findWaitlistEntries().forEach(row -> add(toEntry(row)));
+        log.info("Waitlists loaded: {} entries in {} sessions", entriesByRegistration.size(), queues.size());
+    }
+
+    @EventListener
+    public void onCacheReset(CacheReset reset) {
+        loadFromDatabase();
+    }
+
+    // Очередь сессии изменена на другом узле. Освобожденное там место могло
+    // достаться только тем, кого тот узел знал, - продвигаем очередь и здесь.
+    @EventListener
+    public void onSessionRegistrationsChanged(SessionRegistrationsChanged change) {
+        Long sessionId = change.sessionId();
+        reload(sessionId);
+        if (!queueOf(sessionId).isEmpty()) {
+            new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+                    promoteWhileSeatsAvailable(sessionId));
+        }
+    }
+
+    // Ставит регистрацию в очередь после коммита текущей транзакции
+    public void enqueue(Registration registration) {
+        WaitlistEntry entry = new WaitlistEntry(registration.getId(), registration.getParticipant().getId(),
+                registration.getSession().getId(),
+                registration.getWaitlistPriority() != null ? registration.getWaitlistPriority() : 0,
+                registration.getWaitlistedAt());
+        eventPublisher.publishEvent(new SessionChanged(entry.sessionId(), null));
+        TransactionCallbacks.afterCommit(() -> add(entry));
+    }
+
+    public void remove(Registration registration) {
+        Long registrationId = registration.getId();
+        eventPublisher.publishEvent(new SessionChanged(registration.getSession().getId(), null));
+        TransactionCallbacks.afterCommit(() -> {
+            WaitlistEntry entry = entriesByRegistration.remove(registrationId);
+            if (entry != null) {
+                queueOf(entry.sessionId()).remove(entry);
+            }
+        });
+    }
+
+    // Переводит голову очереди в CONFIRMED, если в сессии есть место.
+    // Кандидаты с пересечением расписания пропускаются и остаются в очереди.
+    @Transactional
+    public Optional<Registration> promoteNext(Long sessionId) {
+        NavigableSet<WaitlistEntry> queue = queues.get(sessionId);
+        if (queue == null) {
+            return Optional.empty();
+        }
+
+        List<WaitlistEntry> skipped = new ArrayList<>();
+        try {
+            WaitlistEntry entry;
+            while ((entry = queue.pollFirst()) != null) {
+                WaitlistEntry polled = entry;
+                entriesByRegistration.remove(polled.registrationId());
+                TransactionCallbacks.afterRollback(() -> add(polled));
+
+                Registration registration = registrationRepository.findByIdForUpdate(polled.registrationId()).orElse(null);
+                if (registration == null || registration.getStatus() != Registration.RegistrationStatus.WAITLISTED) {
+                    continue;
+                }
+
+                Session session = registration.getSession();
+                if (!scheduleIndexService.tryBookParticipant(polled.participantId(), sessionId,
+                        session.getStartTime(), session.getEndTime())) {
+                    skipped.add(polled);
+                    continue;
+                }
+
+                if (!participantCounterService.reserveSessionSeat(sessionId)) {
+                    scheduleIndexService.releaseParticipant(polled.participantId(), sessionId);
+                    skipped.add(polled);
+                    return Optional.empty();
+                }
+
+                registration.setStatus(Registration.RegistrationStatus.CONFIRMED);
+                registration.setWaitlistedAt(null);
+                TransactionCallbacks.afterCommit(() -> seatInventoryService.resync(sessionId));
+                log.info("Registration {} promoted from waitlist of session {}", polled.registrationId(), sessionId);
+                return Optional.of(registrationRepository.save(registration));
+            }
+            return Optional.empty();
+        } finally {
+            skipped.forEach(this::add);
+        }
+    }
+
+    // Продвигает очередь, пока в сессии есть места (например, после увеличения вместимости)
+    @Transactional
+    public int promoteWhileSeatsAvailable(Long sessionId) {
+        int promoted = 0;
+        while (promoteNext(sessionId).isPresent()) {
+            promoted++;
+        }
+        return promoted;
+    }
+
+    // Позиция в очереди, начиная с 1; null, если регистрация не в листе ожидания.
+    // size() представления skip list обходит его элементы - O(позиции), а не O(log n);
+    // для листов ожидания в сотни записей это дешевле поддержки ранга при каждой вставке
+    public Integer getPosition(Long registrationId) {
+        WaitlistEntry entry = entriesByRegistration.get(registrationId);
+        if (entry == null) {
+            return null;
+        }
+        return queueOf(entry.sessionId()).headSet(entry).size() + 1;
+    }
+
+    public List<RegistrationDTO> getWaitlist(Long sessionId) {
+        List<RegistrationDTO> result = new ArrayList<>();
+        int position = 1;
+        for (WaitlistEntry entry : queueOf(sessionId)) {
+            RegistrationDTO dto = new RegistrationDTO();
+            dto.setId(entry.registrationId());
+            dto.setParticipantId(entry.participantId());
+            dto.setSessionId(entry.sessionId());
+            dto.setStatus(Registration.RegistrationStatus.WAITLISTED.name());
+            dto.setWaitlistPosition(position++);
+            result.add(dto);
+        }
+        return result;
+    }
+
+    // Заменяет очередь сессии содержимым БД
+    private void reload(Long sessionId) {
+        NavigableSet<WaitlistEntry> queue = new ConcurrentSkipListSet<>(QUEUE_ORDER);
+        registrationRepository.findWaitlistEntriesBySessionId(sessionId).forEach(row -> queue.add(toEntry(row)));
+        NavigableSet<WaitlistEntry> previous = queues.put(sessionId, queue);
+        if (previous != null) {
+            previous.forEach(entry -> entriesByRegistration.remove(entry.registrationId(), entry));
+        }
+        queue.forEach(entry -> entriesByRegistration.put(entry.registrationId(), entry));
+    }
+
+    private static WaitlistEntry toEntry(Object[] row) {
+        return new WaitlistEntry((Long) row[0], (Long) row[1], (Long) row[2],
+                row[3] != null ? (Integer) row[3] : 0,
+                row[4] != null ? (LocalDateTime) row[4] : LocalDateTime.MIN);
+    }
+
+    private void add(WaitlistEntry entry) {
+        queueOf(entry.sessionId()).add(entry);
+        entriesByRegistration.put(entry.registrationId(), entry);
+    }
+
+    private NavigableSet<WaitlistEntry> queueOf(Long sessionId) {
+        return queues.computeIfAbsent(sessionId, id -> new ConcurrentSkipListSet<>(QUEUE_ORDER));
+    }
+}
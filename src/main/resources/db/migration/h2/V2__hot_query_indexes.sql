@@ -0,0 +1,24 @@
+-- Индексы под горячие запросы репозиториев. H2 не поддерживает частичные индексы,
+-- поэтому здесь их полные аналоги (см. postgresql/V2__hot_query_indexes.sql)
+
+-- existsByParticipantIdAndSessionId, findIdsByParticipantsAndSessions
+create index idx_registrations_participant_session on registrations (participant_id, session_id);
+-- findByParticipantIdAndEventId, регистрации на само событие (session_id is null)
+create index idx_registrations_participant_event on registrations (participant_id, event_id, session_id);
+-- countBySessionId, составы и списки регистраций сессии, очередь ожидания
+create index idx_registrations_session_status on registrations (session_id, status);
+-- составы и регистрации события
+create index idx_registrations_event on registrations (event_id);
+
+-- findByEventIdAndTimeRange, сессии события
+create index idx_sessions_event_start on sessions (event_id, start_time);
+-- findSessionsBetweenDates
+create index idx_sessions_start_end on sessions (start_time, end_time);
+-- сессии спикера
+create index idx_sessions_speaker_start on sessions (speaker_id, start_time);
+
+-- findEventsByDate
+create index idx_events_dates on events (start_date, end_date);
+
+-- findByCompany
+create index idx_participants_company on participants (company);
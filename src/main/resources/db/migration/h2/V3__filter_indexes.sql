@@ -0,0 +1,20 @@
+-- Индексы под условия динамических фильтров (*Specifications). H2 не поддерживает
+-- частичные индексы и классы операторов, поэтому здесь их полные аналоги
+-- (см. postgresql/V3__filter_indexes.sql)
+
+-- спикеры: уровень с диапазоном рейтинга, диапазон рейтинга (findByAverageRating...), компания, витрина
+create index idx_speakers_level_rating on speakers (speaker_level, average_rating);
+create index idx_speakers_rating on speakers (average_rating);
+create index idx_speakers_company on speakers (company);
+create index idx_speakers_featured on speakers (is_featured);
+
+-- участники: начало фамилии и период регистрации
+create index idx_participants_last_name on participants (last_name);
+create index idx_participants_registration_date on participants (registration_date);
+
+-- сессии по статусу или формату в диапазоне времени начала
+create index idx_sessions_status_start on sessions (status, start_time);
+create index idx_sessions_type_start on sessions (type, start_time);
+
+-- события по статусу в диапазоне дат
+create index idx_events_status_start on events (status, start_date);
@@ -0,0 +1,26 @@
+-- Идентификаторы из последовательностей вместо identity (см. postgresql/V4__pooled_sequences.sql)
+
+create sequence events_seq increment by 50;
+alter sequence events_seq restart with (select coalesce(max(id), 0) + 1 from events);
+alter table events alter column id drop identity;
+alter table events alter column id set default next value for events_seq;
+
+create sequence speakers_seq increment by 50;
+alter sequence speakers_seq restart with (select coalesce(max(id), 0) + 1 from speakers);
+alter table speakers alter column id drop identity;
+alter table speakers alter column id set default next value for speakers_seq;
+
+create sequence participants_seq increment by 50;
+alter sequence participants_seq restart with (select coalesce(max(id), 0) + 1 from participants);
+alter table participants alter column id drop identity;
+alter table participants alter column id set default next value for participants_seq;
+
+create sequence sessions_seq increment by 50;
+alter sequence sessions_seq restart with (select coalesce(max(id), 0) + 1 from sessions);
+alter table sessions alter column id drop identity;
+alter table sessions alter column id set default next value for sessions_seq;
+
+create sequence registrations_seq increment by 50;
+alter sequence registrations_seq restart with (select coalesce(max(id), 0) + 1 from registrations);
+alter table registrations alter column id drop identity;
+alter table registrations alter column id set default next value for registrations_seq;
@@ -0,0 +1,8 @@
+-- Версии строк для оптимистической блокировки (@Version) и ETag.
+-- Счетчики current_participants обновляются в обход Hibernate и версию не меняют:
+-- ETag событий и сессий учитывает их отдельно (ResourceVersionService).
+
+alter table events add column version bigint default 0 not null;
+alter table sessions add column version bigint default 0 not null;
+alter table speakers add column version bigint default 0 not null;
+alter table participants add column version bigint default 0 not null;
@@ -0,0 +1,7 @@
+-- Одна регистрация участника на сессию. Проверки перед вставкой (JPA и CTE регистрации)
+-- под READ COMMITTED параллельных запросов не видят; индекс - окончательная проверка.
+-- Частичных индексов в H2 нет, но NULL в уникальном индексе не совпадают между собой,
+-- поэтому регистрации на само событие (session_id is null) не ограничиваются.
+create unique index uk_registrations_participant_session on registrations (participant_id, session_id);
+-- Уникальный индекс покрывает те же запросы, что и обычный из V2
+drop index idx_registrations_participant_session;
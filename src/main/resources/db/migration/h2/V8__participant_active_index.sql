@@ -0,0 +1,3 @@
+-- Фильтр участников по активности (ParticipantSpecifications.isActive). H2 не поддерживает
+-- частичные индексы, поэтому здесь полный аналог (см. postgresql/V8__participant_active_index.sql)
+create index idx_participants_active on participants (is_active);
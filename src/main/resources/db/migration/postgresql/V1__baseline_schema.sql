@@ -0,0 +1,88 @@
+-- Исходная схема (ранее создавалась Hibernate auto-DDL)
+
+create table events (
+    id bigint generated by default as identity,
+    name varchar(255) not null,
+    description varchar(2000),
+    start_date timestamp(6) not null,
+    end_date timestamp(6) not null,
+    location varchar(255) not null,
+    max_participants integer,
+    current_participants integer,
+    status varchar(255) not null check (status in ('PLANNED','ACTIVE','COMPLETED','CANCELLED','POSTPONED')),
+    requires_approval boolean not null,
+    registration_open boolean,
+    deleted boolean not null,
+    primary key (id)
+);
+
+create table speakers (
+    id bigint generated by default as identity,
+    name varchar(255) not null,
+    email varchar(255) not null,
+    bio varchar(1000),
+    company varchar(255),
+    specialization varchar(255),
+    phone_number varchar(255),
+    linkedin_url varchar(255),
+    twitter_handle varchar(255),
+    website_url varchar(255),
+    photo_url varchar(255),
+    speaker_level varchar(255) check (speaker_level in ('REGULAR','EXPERIENCED','EXPERT','KEYNOTE')),
+    is_featured boolean not null,
+    average_rating float(53),
+    total_ratings integer,
+    deleted boolean not null,
+    created_at timestamp(6) not null,
+    updated_at timestamp(6),
+    primary key (id),
+    constraint uk_speakers_email unique (email)
+);
+
+create table participants (
+    id bigint generated by default as identity,
+    first_name varchar(255) not null,
+    last_name varchar(255) not null,
+    email varchar(255) not null,
+    phone varchar(255),
+    company varchar(255),
+    position varchar(255),
+    registration_date timestamp(6),
+    is_active boolean,
+    primary key (id),
+    constraint uk_participants_email unique (email)
+);
+
+create table sessions (
+    id bigint generated by default as identity,
+    title varchar(255) not null,
+    description varchar(2000),
+    start_time timestamp(6) not null,
+    end_time timestamp(6) not null,
+    max_capacity integer not null,
+    current_participants integer,
+    room_number varchar(255),
+    type varchar(255) check (type in ('LECTURE','WORKSHOP','PANEL_DISCUSSION','NETWORKING','BREAK','KEYNOTE')),
+    status varchar(255) check (status in ('SCHEDULED','ACTIVE','COMPLETED','CANCELLED','POSTPONED')),
+    requires_registration boolean,
+    event_id bigint not null,
+    speaker_id bigint,
+    primary key (id),
+    constraint fk_sessions_event foreign key (event_id) references events,
+    constraint fk_sessions_speaker foreign key (speaker_id) references speakers
+);
+
+create table registrations (
+    id bigint generated by default as identity,
+    registration_date timestamp(6),
+    status varchar(255) not null check (status in ('PENDING','CONFIRMED','WAITLISTED','CANCELLED','NO_SHOW','ATTENDED')),
+    waitlist_priority integer,
+    waitlisted_at timestamp(6),
+    participant_id bigint not null,
+    session_id bigint,
+    event_id bigint,
+    primary key (id),
+    constraint fk_registrations_participant foreign key (participant_id) references participants,
+    constraint fk_registrations_session foreign key (session_id) references sessions,
+    constraint fk_registrations_event foreign key (event_id) references events
+);
@@ -0,0 +1,29 @@
+-- Индексы под горячие запросы репозиториев
+
+-- existsByParticipantIdAndSessionId, findIdsByParticipantsAndSessions
+create index idx_registrations_participant_session on registrations (participant_id, session_id);
+-- findByParticipantIdAndEventId
+create index idx_registrations_participant_event on registrations (participant_id, event_id);
+-- регистрации на само событие: findFirstByParticipantIdAndEventIdAndSessionIsNull, needs_event в CTE регистрации
+create index idx_registrations_event_only on registrations (participant_id, event_id) where session_id is null;
+-- countBySessionId, составы и списки регистраций сессии
+create index idx_registrations_session_status on registrations (session_id, status);
+-- очередь ожидания в порядке выдачи мест
+create index idx_registrations_waitlist on registrations (session_id, waitlist_priority desc, waitlisted_at)
+    where status = 'WAITLISTED';
+-- составы и регистрации события
+create index idx_registrations_event on registrations (event_id);
+
+-- findByEventIdAndTimeRange, сессии события
+create index idx_sessions_event_start on sessions (event_id, start_time);
+-- findSessionsBetweenDates
+create index idx_sessions_start_end on sessions (start_time, end_time);
+-- сессии спикера
+create index idx_sessions_speaker_start on sessions (speaker_id, start_time) where speaker_id is not null;
+
+-- findEventsByDate и публичные события: удаленные события не выбираются
+create index idx_events_dates_active on events (start_date, end_date) where not deleted;
+create index idx_events_open_active on events (id) where registration_open and not deleted;
+
+-- findByCompany
+create index idx_participants_company on participants (company);
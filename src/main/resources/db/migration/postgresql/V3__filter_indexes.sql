@@ -0,0 +1,18 @@
+-- Индексы под условия динамических фильтров (*Specifications)
+
+-- спикеры: уровень с диапазоном рейтинга, диапазон рейтинга (findByAverageRating...), компания, витрина
+create index idx_speakers_level_rating on speakers (speaker_level, average_rating);
+create index idx_speakers_rating on speakers (average_rating);
+create index idx_speakers_company on speakers (company);
+create index idx_speakers_featured on speakers (id) where is_featured;
+
+-- участники: начало фамилии (LIKE 'prefix%' при любой collation) и период регистрации
+create index idx_participants_last_name on participants (last_name varchar_pattern_ops);
+create index idx_participants_registration_date on participants (registration_date);
+
+-- сессии по статусу или формату в диапазоне времени начала
+create index idx_sessions_status_start on sessions (status, start_time);
+create index idx_sessions_type_start on sessions (type, start_time);
+
+-- события по статусу в диапазоне дат: удаленные события не выбираются
+create index idx_events_status_start_active on events (status, start_date) where not deleted;
@@ -0,0 +1,34 @@
+-- Идентификаторы из последовательностей вместо identity: Hibernate выделяет их блоками
+-- по 50 (оптимизатор pooled-lo) и может объединять INSERT в пакеты JDBC.
+-- Значение по умолчанию - nextval: вставка в обход Hibernate (CTE регистрации,
+-- пакетная регистрация) занимает начало собственного блока и с Hibernate не пересекается.
+
+create sequence events_seq increment by 50;
+select setval('events_seq', (select coalesce(max(id), 0) + 1 from events), false);
+alter table events alter column id drop identity;
+alter table events alter column id set default nextval('events_seq');
+alter sequence events_seq owned by events.id;
+
+create sequence speakers_seq increment by 50;
+select setval('speakers_seq', (select coalesce(max(id), 0) + 1 from speakers), false);
+alter table speakers alter column id drop identity;
+alter table speakers alter column id set default nextval('speakers_seq');
+alter sequence speakers_seq owned by speakers.id;
+
+create sequence participants_seq increment by 50;
+select setval('participants_seq', (select coalesce(max(id), 0) + 1 from participants), false);
+alter table participants alter column id drop identity;
+alter table participants alter column id set default nextval('participants_seq');
+alter sequence participants_seq owned by participants.id;
+
+create sequence sessions_seq increment by 50;
+select setval('sessions_seq', (select coalesce(max(id), 0) + 1 from sessions), false);
+alter table sessions alter column id drop identity;
+alter table sessions alter column id set default nextval('sessions_seq');
+alter sequence sessions_seq owned by sessions.id;
+
+create sequence registrations_seq increment by 50;
+select setval('registrations_seq', (select coalesce(max(id), 0) + 1 from registrations), false);
+alter table registrations alter column id drop identity;
+alter table registrations alter column id set default nextval('registrations_seq');
+alter sequence registrations_seq owned by registrations.id;
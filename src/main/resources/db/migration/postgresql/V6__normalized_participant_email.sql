@@ -0,0 +1,9 @@
+-- Нормализованный email участника (lower(trim(email))) с уникальным индексом:
+-- адреса, отличающиеся только регистром или пробелами, считаются одним.
+-- Индекс - окончательная проверка уникальности; ParticipantEmailIndex лишь
+-- позволяет не выполнять поиск перед вставкой заведомо нового адреса.
+
+alter table participants add column email_normalized varchar(255);
+update participants set email_normalized = lower(trim(email));
+alter table participants alter column email_normalized set not null;
+create unique index uk_participants_email_normalized on participants (email_normalized);
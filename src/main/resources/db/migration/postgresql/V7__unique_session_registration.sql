@@ -0,0 +1,9 @@
+-- Одна регистрация участника на сессию. Проверки перед вставкой (JPA и CTE регистрации)
+-- под READ COMMITTED параллельных запросов не видят; индекс - окончательная проверка.
+-- Регистрации на само событие (session_id is null) не ограничиваются.
+create unique index uk_registrations_participant_session on registrations (participant_id, session_id)
+    where session_id is not null;
+-- Уникальный индекс покрывает те же запросы по сессии, что и обычный из V2
+-- (условие session_id = ? влечет session_id is not null), а запросы по одному
+-- participant_id обслуживает idx_registrations_participant_event
+drop index idx_registrations_participant_session;
@@ -0,0 +1,3 @@
+-- Фильтр участников по активности (ParticipantSpecifications.isActive): выборочна
+-- выборка неактивных, активные идут по первичному ключу в порядке keyset-страниц
+create index idx_participants_inactive on participants (id) where not is_active;
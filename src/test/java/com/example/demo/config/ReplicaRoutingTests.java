@@ -0,0 +1,99 @@
+package com.example.demo.config;
+
+import com.example.demo.dto.EventFilterDTO;
+import com.example.demo.dto.EventSummaryDTO;
+import com.example.demo.model.Event;
+import com.example.demo.service.EventService;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Два экземпляра H2: primary и "реплика" с той же схемой, но своими данными.
+// По тому, чьи данные вернул сервис, видно, куда ушел запрос. Кэш второго уровня
+// выключен: данные primary и реплики здесь намеренно расходятся.
+@SpringBootTest(properties = {
+        "spring.jpa.properties.hibernate.cache.use_second_level_cache=false",
+        "spring.jpa.properties.hibernate.cache.use_query_cache=false",
+        "spring.datasource.url=jdbc:h2:mem:routing-primary;DB_CLOSE_DELAY=-1",
+        "conference.datasource.replica-urls=" + ReplicaRoutingTests.REPLICA_URL,
+        "conference.datasource.replica-lag-query=SELECT seconds FROM replica_lag",
+        "conference.datasource.max-replica-lag=5s",
+        "conference.datasource.replica-check-interval-ms=3600000"
+})
+class ReplicaRoutingTests {
+    static final String REPLICA_URL = "jdbc:h2:mem:routing-replica;DB_CLOSE_DELAY=-1";
+    private static final String REPLICA_EVENT = "Replica only event";
+
+    private static final JdbcTemplate replica = new JdbcTemplate(new DriverManagerDataSource(REPLICA_URL, "sa", ""));
+
+    @Autowired
+    private EventService eventService;
+    @Autowired
+    private ReplicaRoutingDataSource replicaDataSource;
+
+    @BeforeAll
+    static void createReplica() {
+        Flyway.configure()
+                .dataSource(REPLICA_URL, "sa", "")
+                .locations("classpath:db/migration/h2")
+                .load()
+                .migrate();
+        replica.execute("CREATE TABLE IF NOT EXISTS replica_lag (seconds INT)");
+        replica.update("DELETE FROM replica_lag");
+        replica.update("INSERT INTO replica_lag VALUES (0)");
+        replica.update("DELETE FROM events");
+        replica.update("INSERT INTO events (name, start_date, end_date, location, status, requires_approval, "
+                + "registration_open, deleted) VALUES (?, ?, ?, 'Online', 'PLANNED', FALSE, TRUE, FALSE)",
+                REPLICA_EVENT, LocalDateTime.now(), LocalDateTime.now().plusDays(1));
+    }
+
+    @AfterEach
+    void resetLag() {
+        replica.update("UPDATE replica_lag SET seconds = 0");
+        replicaDataSource.checkReplicas();
+    }
+
+    @Test
+    void readOnlyTransactionsReadFromReplica() {
+        assertTrue(listedEventNames().contains(REPLICA_EVENT));
+    }
+
+    @Test
+    void writesGoToPrimary() {
+        Event event = Event.builder()
+                .name("Primary only event")
+                .location("Online")
+                .startDate(LocalDateTime.now())
+                .endDate(LocalDateTime.now().plusDays(1))
+                .build();
+        eventService.createEvent(event);
+
+        assertEquals(0, replica.queryForObject(
+                "SELECT COUNT(*) FROM events WHERE name = 'Primary only event'", Integer.class));
+    }
+
+    @Test
+    void laggingReplicaFallsBackToPrimary() {
+        replica.update("UPDATE replica_lag SET seconds = 60");
+        replicaDataSource.checkReplicas();
+
+        assertFalse(listedEventNames().contains(REPLICA_EVENT));
+    }
+
+    // Публичные списки событий читаются с primary (EventListingCache), поэтому здесь фильтр
+    private java.util.List<String> listedEventNames() {
+        return eventService.searchEvents(new EventFilterDTO(), null, null).getItems().stream()
+                .map(EventSummaryDTO::getName).toList();
+    }
+}
@@ -0,0 +1,125 @@
+package com.example.demo.controller;
+
+import com.example.demo.model.Event;
+import com.example.demo.model.Participant;
+import com.example.demo.model.Session;
+import com.example.demo.repository.ParticipantRepository;
+import com.example.demo.service.EventService;
+import com.example.demo.service.RegistrationService;
+import com.example.demo.service.SessionService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Повторный GET с If-None-Match отвечает 304 одним запросом версий; тег меняется
+// и при изменении сущности, и при изменении счетчика участников в обход Hibernate
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureMockMvc
+class ConditionalGetTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private EventService eventService;
+    @Autowired
+    private SessionService sessionService;
+    @Autowired
+    private RegistrationService registrationService;
+    @Autowired
+    private ParticipantRepository participantRepository;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Event event;
+    private Session session;
+    private Statistics statistics;
+
+    @BeforeEach
+    void createData() {
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        event = eventService.createEvent(Event.builder()
+                .name("Polled event " + UUID.randomUUID())
+                .location("Online")
+                .startDate(start)
+                .endDate(start.plusDays(1))
+                .build());
+        Session created = new Session();
+        created.setTitle("Polled session");
+        created.setStartTime(start);
+        created.setEndTime(start.plusHours(1));
+        created.setEvent(event);
+        session = sessionService.createSession(created);
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void unchangedResourcesAnswerNotModifiedWithSingleQuery() throws Exception {
+        for (String path : new String[]{"/api/events/" + event.getId(), "/api/sessions/" + session.getId(),
+                "/api/sessions/event/" + event.getId()}) {
+            String etag = etag(path);
+
+            statistics.clear();
+            mockMvc.perform(get(path).header(HttpHeaders.IF_NONE_MATCH, etag))
+                    .andExpect(status().isNotModified())
+                    .andExpect(content().string(""));
+
+            assertEquals(1, statistics.getPrepareStatementCount(), path);
+            assertEquals(0, statistics.getEntityLoadCount(), path);
+        }
+    }
+
+    @Test
+    void tagChangesWithEntityAndCounter() throws Exception {
+        String eventPath = "/api/events/" + event.getId();
+        String sessionsPath = "/api/sessions/event/" + event.getId();
+        String eventTag = etag(eventPath);
+        String sessionsTag = etag(sessionsPath);
+
+        registrationService.registerForSession(newParticipant().getId(), session.getId());
+
+        String registeredEventTag = etag(eventPath);
+        String registeredSessionsTag = etag(sessionsPath);
+        assertNotEquals(eventTag, registeredEventTag);
+        assertNotEquals(sessionsTag, registeredSessionsTag);
+        mockMvc.perform(get(eventPath).header(HttpHeaders.IF_NONE_MATCH, eventTag))
+                .andExpect(status().isOk());
+
+        eventService.updateEventStatus(event.getId(), "ACTIVE");
+
+        assertNotEquals(registeredEventTag, etag(eventPath));
+    }
+
+    private String etag(String path) throws Exception {
+        String etag = mockMvc.perform(get(path))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotNull(etag, path);
+        return etag;
+    }
+
+    private Participant newParticipant() {
+        Participant participant = new Participant();
+        participant.setFirstName("Polling");
+        participant.setLastName("Test");
+        participant.setEmail("polling-" + UUID.randomUUID() + "@example.com");
+        return participantRepository.save(participant);
+    }
+}
@@ -0,0 +1,128 @@
+package com.example.demo.controller;
+
+import com.example.demo.model.Event;
+import com.example.demo.model.Participant;
+import com.example.demo.model.Registration;
+import com.example.demo.model.Session;
+import com.example.demo.model.Speaker;
+import com.example.demo.repository.EventRepository;
+import com.example.demo.repository.ParticipantRepository;
+import com.example.demo.repository.RegistrationRepository;
+import com.example.demo.repository.SessionRepository;
+import com.example.demo.repository.SpeakerRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Число SQL-запросов на вызов эндпоинта не должно зависеть от числа строк ответа
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureMockMvc
+class QueryCountTests {
+    private static final int ROWS = 5;
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private EventRepository eventRepository;
+    @Autowired
+    private SessionRepository sessionRepository;
+    @Autowired
+    private SpeakerRepository speakerRepository;
+    @Autowired
+    private ParticipantRepository participantRepository;
+    @Autowired
+    private RegistrationRepository registrationRepository;
+
+    private Event event;
+    private Session session;
+    private Speaker speaker;
+
+    @BeforeEach
+    void createData() {
+        String suffix = UUID.randomUUID().toString();
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+
+        speaker = new Speaker();
+        speaker.setName("Speaker " + suffix);
+        speaker.setEmail("speaker-" + suffix + "@example.com");
+        speakerRepository.save(speaker);
+
+        // Сессии спикера в разных событиях: ленивая загрузка события дала бы запрос на каждую
+        for (int i = 0; i < ROWS; i++) {
+            Event sessionEvent = eventRepository.save(Event.builder()
+                    .name("Event " + i + " " + suffix)
+                    .location("Online")
+                    .startDate(start)
+                    .endDate(start.plusDays(1))
+                    .build());
+            Session created = new Session();
+            created.setTitle("Session " + i);
+            created.setStartTime(start.plusHours(i));
+            created.setEndTime(start.plusHours(i).plusMinutes(30));
+            created.setEvent(sessionEvent);
+            created.setSpeaker(speaker);
+            sessionRepository.save(created);
+            if (i == 0) {
+                event = sessionEvent;
+                session = created;
+            }
+        }
+
+        for (int i = 0; i < ROWS; i++) {
+            Participant participant = participantRepository.save(Participant.builder()
+                    .firstName("Participant")
+                    .lastName(String.valueOf(i))
+                    .email("participant-" + i + "-" + suffix + "@example.com")
+                    .build());
+            Registration registration = new Registration();
+            registration.setParticipant(participant);
+            registration.setSession(session);
+            registration.setEvent(event);
+            registrationRepository.save(registration);
+        }
+    }
+
+    @Test
+    void sessionRosterIsSingleQuery() throws Exception {
+        assertEquals(1, statementsFor("/api/sessions/" + session.getId() + "/participants"));
+    }
+
+    @Test
+    void eventRosterIsSingleQuery() throws Exception {
+        assertEquals(1, statementsFor("/api/participants/event/" + event.getId()));
+    }
+
+    @Test
+    void speakerSessionListsAreSingleQuery() throws Exception {
+        assertEquals(1, statementsFor("/api/speakers/" + speaker.getId() + "/sessions"));
+        assertEquals(1, statementsFor("/api/sessions/speaker/" + speaker.getId() + "/future"));
+    }
+
+    @Test
+    void agendaListsAreSingleQuery() throws Exception {
+        assertEquals(1, statementsFor("/api/sessions/upcoming"));
+        assertEquals(1, statementsFor("/api/sessions/available"));
+    }
+
+    private long statementsFor(String url) throws Exception {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        mockMvc.perform(get(url)).andExpect(status().isOk());
+        return statistics.getPrepareStatementCount();
+    }
+}
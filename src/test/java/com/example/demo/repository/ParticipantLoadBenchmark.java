@@ -0,0 +1,81 @@
+package com.example.demo.repository;
+
+import com.example.demo.model.Participant;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Загрузка большого числа участников через saveAll порциями по транзакции.
+// Не входит в обычную сборку: mvn test -Pbenchmark [-Dbenchmark.participants=...]
+// (для PostgreSQL - с -Dspring.datasource.url=...)
+@Tag("benchmark")
+@SpringBootTest
+@Slf4j
+class ParticipantLoadBenchmark {
+    private static final int CHUNK_SIZE = 10_000;
+    private static final int DELETE_CHUNK_SIZE = 50_000;
+
+    @Autowired
+    private ParticipantRepository participantRepository;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${benchmark.participants:1000000}")
+    private int total;
+
+    private final String emailPrefix = "bench-" + UUID.randomUUID() + "-";
+    private long lastIdBefore;
+
+    @BeforeEach
+    void rememberLastId() {
+        lastIdBefore = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM participants", Long.class);
+    }
+
+    @Test
+    void loadParticipants() {
+        long started = System.nanoTime();
+        for (int offset = 0; offset < total; offset += CHUNK_SIZE) {
+            List<Participant> chunk = new ArrayList<>(CHUNK_SIZE);
+            for (int i = offset; i < Math.min(offset + CHUNK_SIZE, total); i++) {
+                Participant participant = new Participant();
+                participant.setFirstName("First" + i);
+                participant.setLastName("Last" + i);
+                participant.setEmail(emailPrefix + i + "@example.com");
+                participant.setCompany("Company " + (i % 1000));
+                chunk.add(participant);
+            }
+            transactionTemplate.executeWithoutResult(status -> participantRepository.saveAll(chunk));
+        }
+        double seconds = (System.nanoTime() - started) / 1e9;
+
+        log.info("Loaded {} participants in {} s ({} rows/s)", total,
+                String.format("%.1f", seconds), String.format("%.0f", total / seconds));
+        assertEquals(total, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM participants WHERE id > ?", Long.class, lastIdBefore));
+    }
+
+    // Удаление порциями: одна транзакция на миллион строк не помещается в память H2
+    @AfterEach
+    void cleanUp() {
+        long lastId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM participants", Long.class);
+        for (long from = lastIdBefore; from < lastId; from += DELETE_CHUNK_SIZE) {
+            jdbcTemplate.update("DELETE FROM participants WHERE id > ? AND id <= ? AND email LIKE ?",
+                    from, from + DELETE_CHUNK_SIZE, emailPrefix + "%");
+        }
+    }
+}
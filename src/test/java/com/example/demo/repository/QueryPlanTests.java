@@ -0,0 +1,163 @@
+package com.example.demo.repository;
+
+import com.example.demo.model.Event;
+import com.example.demo.model.Session;
+import com.example.demo.model.Speaker;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ParameterMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Планы горячих запросов репозиториев: SQL, который генерирует Hibernate, прогоняется
+// через EXPLAIN, и полный просмотр больших таблиц считается ошибкой
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "com.example.demo.repository.QueryPlanTests$CapturingInspector")
+class QueryPlanTests {
+    private static final Pattern FULL_SCAN =
+            Pattern.compile("PUBLIC\\.(REGISTRATIONS|SESSIONS|PARTICIPANTS|SPEAKERS|EVENTS)\\.tableScan");
+    private static final Pattern SESSIONS_SCAN = Pattern.compile("PUBLIC\\.(SESSIONS)\\.tableScan");
+
+    @Autowired
+    private DataSource dataSource;
+    @Autowired
+    private RegistrationRepository registrationRepository;
+    @Autowired
+    private SessionRepository sessionRepository;
+    @Autowired
+    private ParticipantRepository participantRepository;
+    @Autowired
+    private EventRepository eventRepository;
+    @Autowired
+    private SpeakerRepository speakerRepository;
+
+    @Test
+    void registrationLookupsUseIndexes() throws Exception {
+        assertIndexed(() -> registrationRepository.existsByParticipantIdAndSessionId(1L, 1L));
+        assertIndexed(() -> registrationRepository.countBySessionId(1L));
+        assertIndexed(() -> registrationRepository.findByParticipantIdAndEventId(-1L, -1L));
+        assertIndexed(() -> registrationRepository.findFirstByParticipantIdAndEventIdAndSessionIsNull(1L, 1L));
+        assertIndexed(() -> registrationRepository.findBySessionId(1L));
+        assertIndexed(() -> registrationRepository.findByEventId(1L));
+        assertIndexed(() -> registrationRepository.findByParticipantId(1L));
+        assertIndexed(() -> registrationRepository.findSummariesBySessionId(1L, 0L, Limit.of(10)));
+        assertIndexed(() -> registrationRepository.findSummariesByParticipantId(1L, 0L, Limit.of(10)));
+    }
+
+    // Потоковые выборки требуют открытой транзакции на время чтения
+    @Test
+    @Transactional(readOnly = true)
+    void exportStreamsUseIndexes() throws Exception {
+        assertIndexed(() -> registrationRepository.streamExportByEventId(1L).close());
+        assertIndexed(() -> registrationRepository.streamExportBySessionId(1L).close());
+    }
+
+    @Test
+    void sessionLookupsUseIndexes() throws Exception {
+        LocalDateTime from = LocalDateTime.of(2024, 6, 15, 0, 0);
+        assertIndexed(() -> sessionRepository.findByEventIdAndTimeRange(1L, from, from.plusDays(1)));
+        assertIndexed(() -> sessionRepository.findSessionsBetweenDates(from, from.plusDays(1)));
+        assertIndexed(() -> sessionRepository.findBySpeakerId(1L));
+        assertIndexed(() -> sessionRepository.findSummariesByEventId(1L, 0L, Limit.of(10)));
+    }
+
+    @Test
+    void rosterLookupsUseIndexes() throws Exception {
+        assertIndexed(() -> participantRepository.findRosterBySessionId(1L));
+        assertIndexed(() -> participantRepository.findRosterByEventId(1L));
+        assertIndexed(() -> participantRepository.findByCompany("Google"));
+        assertIndexed(() -> eventRepository.findEventsByDate(LocalDateTime.of(2024, 6, 15, 12, 0)));
+    }
+
+    // Каждое условие фильтра в отдельности выбирает строки по индексу
+    @Test
+    void filterSpecificationsUseIndexes() throws Exception {
+        LocalDateTime from = LocalDateTime.of(2024, 6, 15, 0, 0);
+        assertIndexed(() -> sessionRepository.findAll(SessionSpecifications.hasStatus(Session.SessionStatus.SCHEDULED)));
+        assertIndexed(() -> sessionRepository.findAll(SessionSpecifications.hasType(Session.SessionType.WORKSHOP)));
+        assertIndexed(() -> sessionRepository.findAll(SessionSpecifications.startsBetween(from, from.plusDays(1))));
+        assertIndexed(() -> sessionRepository.findAll(SessionSpecifications.bySpeaker(1L)));
+        assertIndexed(() -> participantRepository.findAll(ParticipantSpecifications.lastNameStartsWith("Iv")));
+        assertIndexed(() -> participantRepository.findAll(ParticipantSpecifications.registeredBetween(from, null)));
+        assertIndexed(() -> participantRepository.findAll(ParticipantSpecifications.isActive(false)));
+        assertIndexed(() -> speakerRepository.findAll(SpeakerSpecifications.ratingBetween(4.0, null)));
+        assertIndexed(() -> speakerRepository.findAll(SpeakerSpecifications.hasLevel(Speaker.SpeakerLevel.EXPERT)));
+        assertIndexed(() -> speakerRepository.findAll(SpeakerSpecifications.hasCompany("Google")));
+        assertIndexed(() -> speakerRepository.findAll(SpeakerSpecifications.isFeatured(true)));
+        assertIndexed(() -> eventRepository.findAll(EventSpecifications.hasStatus(Event.EventStatus.PLANNED)));
+    }
+
+    // Кандидаты - все спикеры, но сессии каждого проверяются по индексу
+    @Test
+    void speakerAvailabilityProbesSessionsByIndex() throws Exception {
+        LocalDateTime from = LocalDateTime.of(2024, 6, 15, 10, 0);
+        assertNoFullScan(SESSIONS_SCAN, () -> speakerRepository.findAvailable(from, from.plusHours(1)));
+    }
+
+    private void assertIndexed(Runnable query) throws Exception {
+        assertNoFullScan(FULL_SCAN, query);
+    }
+
+    private void assertNoFullScan(Pattern fullScan, Runnable query) throws Exception {
+        CapturingInspector.STATEMENTS.clear();
+        query.run();
+        List<String> statements = List.copyOf(CapturingInspector.STATEMENTS);
+        assertFalse(statements.isEmpty(), "No SQL captured");
+
+        for (String sql : statements) {
+            String plan = explain(sql);
+            Matcher scan = fullScan.matcher(plan);
+            assertTrue(!scan.find(), () -> "Full scan of " + scan.group(1) + " in plan:\n" + plan);
+        }
+    }
+
+    // Параметры подставляются по типам, выведенным СУБД: план от значений не зависит
+    private String explain(String sql) throws Exception {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement("EXPLAIN " + sql)) {
+            ParameterMetaData parameters = statement.getParameterMetaData();
+            for (int i = 1; i <= parameters.getParameterCount(); i++) {
+                switch (parameters.getParameterType(i)) {
+                    case Types.TIMESTAMP -> statement.setTimestamp(i, Timestamp.valueOf(LocalDateTime.now()));
+                    case Types.VARCHAR, Types.OTHER -> statement.setString(i, "x");
+                    case Types.BOOLEAN -> statement.setBoolean(i, true);
+                    default -> statement.setLong(i, 1L);
+                }
+            }
+            try (ResultSet rs = statement.executeQuery()) {
+                StringBuilder plan = new StringBuilder();
+                while (rs.next()) {
+                    plan.append(rs.getString(1)).append('\n');
+                }
+                return plan.toString();
+            }
+        }
+    }
+
+    public static class CapturingInspector implements StatementInspector {
+        static final List<String> STATEMENTS = new ArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            STATEMENTS.add(sql);
+            return sql;
+        }
+    }
+}
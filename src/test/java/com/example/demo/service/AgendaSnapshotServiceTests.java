@@ -0,0 +1,110 @@
+package com.example.demo.service;
+
+import com.example.demo.model.Event;
+import com.example.demo.model.Participant;
+import com.example.demo.model.Session;
+import com.example.demo.model.Speaker;
+import com.example.demo.repository.ParticipantRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Снимок программы собирается один раз и пересобирается только после изменения
+// сессий события или их спикеров
+@SpringBootTest
+class AgendaSnapshotServiceTests {
+
+    @Autowired
+    private AgendaSnapshotService agendaSnapshotService;
+    @Autowired
+    private EventService eventService;
+    @Autowired
+    private SessionService sessionService;
+    @Autowired
+    private SpeakerService speakerService;
+    @Autowired
+    private RegistrationService registrationService;
+    @Autowired
+    private ParticipantRepository participantRepository;
+
+    private Event event;
+    private Session session;
+    private Speaker speaker;
+
+    @BeforeEach
+    void createAgenda() {
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        event = eventService.createEvent(Event.builder()
+                .name("Agenda event " + UUID.randomUUID())
+                .location("Online")
+                .startDate(start)
+                .endDate(start.plusDays(1))
+                .build());
+
+        Speaker newSpeaker = new Speaker();
+        newSpeaker.setName("Agenda speaker");
+        newSpeaker.setEmail("agenda-" + UUID.randomUUID() + "@example.com");
+        speaker = speakerService.createSpeaker(newSpeaker);
+
+        Session newSession = new Session();
+        newSession.setTitle("Opening talk");
+        newSession.setStartTime(start);
+        newSession.setEndTime(start.plusHours(1));
+        newSession.setEvent(event);
+        newSession.setSpeaker(speaker);
+        session = sessionService.createSession(newSession);
+    }
+
+    @Test
+    void snapshotIsReusedUntilSessionChanges() {
+        AgendaSnapshotService.AgendaSnapshot first = agendaSnapshotService.getSnapshot(event.getId());
+        assertTrue(json(first).contains("Opening talk"));
+
+        // Регистрация меняет только счетчики, которых в программе нет
+        registrationService.registerForSession(newParticipant().getId(), session.getId());
+        assertSame(first, agendaSnapshotService.getSnapshot(event.getId()));
+
+        Session details = new Session();
+        details.setTitle("Keynote");
+        sessionService.updateSession(session.getId(), details);
+
+        AgendaSnapshotService.AgendaSnapshot rebuilt = agendaSnapshotService.getSnapshot(event.getId());
+        assertNotSame(first, rebuilt);
+        assertTrue(json(rebuilt).contains("Keynote"));
+    }
+
+    @Test
+    void speakerChangeRebuildsAgendaOfItsEvents() {
+        AgendaSnapshotService.AgendaSnapshot first = agendaSnapshotService.getSnapshot(event.getId());
+
+        Speaker details = new Speaker();
+        details.setName("Renamed speaker");
+        details.setEmail(speaker.getEmail());
+        speakerService.updateSpeaker(speaker.getId(), details);
+
+        AgendaSnapshotService.AgendaSnapshot rebuilt = agendaSnapshotService.getSnapshot(event.getId());
+        assertNotSame(first, rebuilt);
+        assertTrue(json(rebuilt).contains("Renamed speaker"));
+    }
+
+    private static String json(AgendaSnapshotService.AgendaSnapshot snapshot) {
+        return new String(snapshot.uncompressed(), StandardCharsets.UTF_8);
+    }
+
+    private Participant newParticipant() {
+        Participant participant = new Participant();
+        participant.setFirstName("Agenda");
+        participant.setLastName("Test");
+        participant.setEmail("agenda-participant-" + UUID.randomUUID() + "@example.com");
+        return participantRepository.save(participant);
+    }
+}
@@ -0,0 +1,105 @@
+package com.example.demo.service;
+
+import com.example.demo.model.Event;
+import com.example.demo.model.Participant;
+import com.example.demo.repository.ParticipantRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Публичные списки событий отдаются из кэша без обращения к БД
+// и обновляются после изменений событий и их счетчиков
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class EventListingCacheTests {
+
+    @Autowired
+    private EventService eventService;
+    @Autowired
+    private RegistrationService registrationService;
+    @Autowired
+    private ParticipantRepository participantRepository;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Event event;
+    private Statistics statistics;
+
+    @BeforeEach
+    void createEvent() {
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        event = eventService.createEvent(Event.builder()
+                .name("Listed event " + UUID.randomUUID())
+                .location("Online")
+                .startDate(start)
+                .endDate(start.plusDays(1))
+                .maxParticipants(1)
+                .build());
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void cacheHitDoesNotTouchDatabase() {
+        eventService.getPublicEvents();
+        eventService.getEventsWithAvailableSpots();
+        long connects = statistics.getConnectCount();
+        long statements = statistics.getPrepareStatementCount();
+
+        eventService.getPublicEvents();
+        eventService.getEventsWithAvailableSpots();
+
+        assertEquals(connects, statistics.getConnectCount());
+        assertEquals(statements, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void listingsFollowEventChanges() {
+        assertTrue(listed(eventService.getPublicEvents()));
+
+        eventService.updateEventStatus(event.getId(), "CANCELLED");
+        eventService.deleteEvent(event.getId());
+
+        assertFalse(listed(eventService.getPublicEvents()));
+    }
+
+    @Test
+    void availableListingFollowsRegistrationCounter() {
+        assertTrue(listed(eventService.getEventsWithAvailableSpots()));
+        eventService.getPublicEvents();
+
+        registrationService.registerForEvent(newParticipant().getId(), event.getId());
+
+        assertFalse(listed(eventService.getEventsWithAvailableSpots()));
+        // Счетчик обновлен в обход Hibernate - закэшированная выборка запроса тоже устарела
+        Event listedEvent = eventService.getPublicEvents().stream()
+                .filter(candidate -> candidate.getId().equals(event.getId()))
+                .findFirst()
+                .orElseThrow();
+        assertEquals(1, listedEvent.getCurrentParticipants());
+    }
+
+    private boolean listed(List<Event> events) {
+        return events.stream().anyMatch(listedEvent -> listedEvent.getId().equals(event.getId()));
+    }
+
+    private Participant newParticipant() {
+        Participant participant = new Participant();
+        participant.setFirstName("Listing");
+        participant.setLastName("Test");
+        participant.setEmail("listing-" + UUID.randomUUID() + "@example.com");
+        return participantRepository.save(participant);
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.demo.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IntervalTreeTests {
+    private static final LocalDateTime BASE = LocalDateTime.of(2024, 6, 15, 9, 0);
+
+    @Test
+    void touchingIntervalsDoNotOverlap() {
+        IntervalTree tree = new IntervalTree();
+        tree.insert(1L, at(60), at(120));
+
+        assertFalse(tree.overlaps(at(0), at(60)));
+        assertFalse(tree.overlaps(at(120), at(180)));
+        assertTrue(tree.overlaps(at(90), at(100)));
+        assertTrue(tree.overlaps(at(0), at(240)));
+    }
+
+    @Test
+    void removedIntervalNoLongerOverlaps() {
+        IntervalTree tree = new IntervalTree();
+        tree.insert(1L, at(0), at(600));
+        tree.insert(2L, at(30), at(40));
+
+        tree.remove(1L);
+
+        assertFalse(tree.overlaps(at(100), at(200)));
+        assertTrue(tree.overlaps(at(35), at(36)));
+    }
+
+    @Test
+    void matchesBruteForceOnRandomIntervals() {
+        Random random = new Random(42);
+        IntervalTree tree = new IntervalTree();
+        List<long[]> intervals = new ArrayList<>();
+
+        for (long id = 0; id < 500; id++) {
+            long start = random.nextInt(10_000);
+            long end = start + 1 + random.nextInt(300);
+            tree.insert(id, at(start), at(end));
+            intervals.add(new long[]{id, start, end});
+        }
+        for (int i = 0; i < 200; i++) {
+            long[] removed = intervals.remove(random.nextInt(intervals.size()));
+            tree.remove(removed[0]);
+        }
+
+        for (int i = 0; i < 2_000; i++) {
+            long start = random.nextInt(10_000);
+            long end = start + 1 + random.nextInt(100);
+            boolean expected = intervals.stream().anyMatch(interval -> interval[1] < end && start < interval[2]);
+            assertEquals(expected, tree.overlaps(at(start), at(end)));
+        }
+    }
+
+    private static LocalDateTime at(long minutes) {
+        return BASE.plusMinutes(minutes);
+    }
+}
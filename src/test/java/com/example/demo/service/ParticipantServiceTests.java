@@ -0,0 +1,55 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.ParticipantImportResultDTO;
+import com.example.demo.model.Participant;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+// Уникальность email без учета регистра и пробелов: и при создании, и при импорте
+@SpringBootTest
+class ParticipantServiceTests {
+
+    @Autowired
+    private ParticipantService participantService;
+
+    @Test
+    void createRejectsEmailDifferingOnlyInCase() {
+        String email = "case-" + UUID.randomUUID() + "@example.com";
+        participantService.createParticipant(participant(email));
+
+        RuntimeException conflict = assertThrows(RuntimeException.class,
+                () -> participantService.createParticipant(participant(" " + email.toUpperCase() + " ")));
+        assertEquals("Participant with this email already exists", conflict.getMessage());
+    }
+
+    @Test
+    void importSkipsExistingAndRepeatedEmails() {
+        String existing = "import-" + UUID.randomUUID() + "@example.com";
+        String fresh = "import-" + UUID.randomUUID() + "@example.com";
+        participantService.createParticipant(participant(existing));
+
+        ParticipantImportResultDTO result = participantService.importParticipants(List.of(
+                participant(fresh), participant(existing.toUpperCase()), participant(fresh.toUpperCase())));
+
+        assertEquals(1, result.getImported());
+        assertNotNull(result.getRows().get(0).getParticipantId());
+        assertEquals("Participant with this email already exists", result.getRows().get(1).getError());
+        assertEquals("Duplicate email in import", result.getRows().get(2).getError());
+    }
+
+    private static Participant participant(String email) {
+        return Participant.builder()
+                .firstName("Unique")
+                .lastName("Email")
+                .email(email)
+                .build();
+    }
+}
@@ -0,0 +1,129 @@
+package com.example.demo.service;
+
+import com.example.demo.model.Event;
+import com.example.demo.model.Participant;
+import com.example.demo.model.Registration;
+import com.example.demo.model.Session;
+import com.example.demo.repository.EventRepository;
+import com.example.demo.repository.ParticipantRepository;
+import com.example.demo.repository.RegistrationRepository;
+import com.example.demo.repository.SessionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Места в сессии: in-memory счетчик отсекает заполненную сессию, окончательное
+// решение принимает БД, и после ее отказа счетчик совпадает с БД
+@SpringBootTest
+class RegistrationServiceTests {
+
+    @Autowired
+    private RegistrationService registrationService;
+    @Autowired
+    private SeatInventoryService seatInventoryService;
+    @Autowired
+    private EventRepository eventRepository;
+    @Autowired
+    private SessionRepository sessionRepository;
+    @Autowired
+    private ParticipantRepository participantRepository;
+    @Autowired
+    private RegistrationRepository registrationRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Session session;
+
+    @BeforeEach
+    void createSession() {
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        Event event = eventRepository.save(Event.builder()
+                .name("Seats event " + UUID.randomUUID())
+                .location("Online")
+                .startDate(start)
+                .endDate(start.plusDays(1))
+                .build());
+        session = new Session();
+        session.setTitle("Seats session");
+        session.setStartTime(start);
+        session.setEndTime(start.plusHours(1));
+        session.setMaxCapacity(2);
+        session.setEvent(event);
+        sessionRepository.save(session);
+    }
+
+    @Test
+    void fullSessionIsRejectedAndCountersMatch() {
+        registrationService.registerForSession(newParticipant().getId(), session.getId());
+        registrationService.registerForSession(newParticipant().getId(), session.getId());
+        Long participantId = newParticipant().getId();
+
+        RuntimeException full = assertThrows(RuntimeException.class,
+                () -> registrationService.registerForSession(participantId, session.getId()));
+
+        assertEquals("Session is full", full.getMessage());
+        assertEquals(2, currentParticipants());
+        assertFalse(seatInventoryService.hasFreeSeat(session.getId()));
+    }
+
+    // Место занято в обход этого узла: in-memory счетчик пропускает запрос, БД отказывает,
+    // и после отката счетчик перечитан без возвращенного поверх него места
+    @Test
+    void databaseRejectionResyncsInventory() {
+        registrationService.registerForSession(newParticipant().getId(), session.getId());
+        jdbcTemplate.update("UPDATE sessions SET current_participants = 2 WHERE id = ?", session.getId());
+        assertTrue(seatInventoryService.hasFreeSeat(session.getId()));
+        Long participantId = newParticipant().getId();
+
+        RuntimeException full = assertThrows(RuntimeException.class,
+                () -> registrationService.registerForSession(participantId, session.getId()));
+
+        assertEquals("Session is full", full.getMessage());
+        assertEquals(2, currentParticipants());
+        assertFalse(seatInventoryService.hasFreeSeat(session.getId()));
+    }
+
+    @Test
+    void secondRegistrationForSameSessionIsRejected() {
+        Long participantId = newParticipant().getId();
+        Registration first = registrationService.registerForSession(participantId, session.getId());
+
+        RuntimeException duplicate = assertThrows(RuntimeException.class,
+                () -> registrationService.registerForSession(participantId, session.getId()));
+
+        assertEquals("Participant already registered for this session", duplicate.getMessage());
+        assertEquals(1, currentParticipants());
+        assertTrue(seatInventoryService.hasFreeSeat(session.getId()));
+
+        // Проверки обходит параллельный запрос - последним рубежом остается уникальный индекс
+        Registration copy = new Registration();
+        copy.setParticipant(first.getParticipant());
+        copy.setSession(first.getSession());
+        copy.setEvent(first.getEvent());
+        assertThrows(DataIntegrityViolationException.class, () -> registrationRepository.saveAndFlush(copy));
+    }
+
+    private int currentParticipants() {
+        return jdbcTemplate.queryForObject("SELECT current_participants FROM sessions WHERE id = ?",
+                Integer.class, session.getId());
+    }
+
+    private Participant newParticipant() {
+        Participant participant = new Participant();
+        participant.setFirstName("Seats");
+        participant.setLastName("Test");
+        participant.setEmail("seats-" + UUID.randomUUID() + "@example.com");
+        return participantRepository.save(participant);
+    }
+}
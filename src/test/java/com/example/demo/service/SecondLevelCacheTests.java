@@ -0,0 +1,126 @@
+package com.example.demo.service;
+
+import com.example.demo.model.Event;
+import com.example.demo.model.Participant;
+import com.example.demo.model.Session;
+import com.example.demo.repository.EventRepository;
+import com.example.demo.repository.ParticipantRepository;
+import com.example.demo.repository.SessionRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+// Сущности отдаются из кэша второго уровня, а счетчики участников в них
+// не отстают от БД после регистраций, идущих в обход Hibernate
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class SecondLevelCacheTests {
+
+    @Autowired
+    private SessionService sessionService;
+    @Autowired
+    private EventService eventService;
+    @Autowired
+    private RegistrationService registrationService;
+    @Autowired
+    private EventRepository eventRepository;
+    @Autowired
+    private SessionRepository sessionRepository;
+    @Autowired
+    private ParticipantRepository participantRepository;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private Event event;
+    private Session session;
+    private Statistics statistics;
+
+    @BeforeEach
+    void createData() {
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        event = eventRepository.save(Event.builder()
+                .name("Cached event " + UUID.randomUUID())
+                .location("Online")
+                .startDate(start)
+                .endDate(start.plusDays(1))
+                .build());
+        session = new Session();
+        session.setTitle("Cached session");
+        session.setStartTime(start);
+        session.setEndTime(start.plusHours(1));
+        session.setEvent(event);
+        sessionRepository.save(session);
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void repeatedReadsAreServedFromCache() {
+        sessionService.getSessionById(session.getId());
+        long statements = statistics.getPrepareStatementCount();
+        // Сессия могла попасть в кэш еще при вставке
+        long hits = statistics.getDomainDataRegionStatistics("sessions").getHitCount();
+
+        sessionService.getSessionById(session.getId());
+
+        assertEquals(statements, statistics.getPrepareStatementCount());
+        assertEquals(hits + 1, statistics.getDomainDataRegionStatistics("sessions").getHitCount());
+        assertNotNull(meterRegistry.find("cache.gets").tag("cache", "sessions").functionCounter());
+    }
+
+    @Test
+    void countersStayCurrentAfterRegistration() {
+        sessionService.getSessionById(session.getId());
+        eventService.getEventById(event.getId());
+
+        registrationService.registerForSession(newParticipant().getId(), session.getId());
+
+        assertEquals(1, sessionService.getSessionById(session.getId()).getCurrentParticipants());
+        assertEquals(1, eventService.getEventById(event.getId()).getCurrentParticipants());
+    }
+
+    @Test
+    void entityUpdateDoesNotCacheStaleCounter() {
+        Long participantId = newParticipant().getId();
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        TransactionTemplate nested = new TransactionTemplate(transactionManager);
+        nested.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+        // Событие загружено до регистрации, а изменено и закоммичено после нее;
+        // между ними другая транзакция успевает вернуть событие в кэш
+        transaction.executeWithoutResult(status -> {
+            Event loaded = eventRepository.findById(event.getId()).orElseThrow();
+            nested.executeWithoutResult(inner -> registrationService.registerForEvent(participantId, event.getId()));
+            nested.executeWithoutResult(inner -> eventService.getEventById(event.getId()));
+            loaded.setDescription("Updated");
+        });
+
+        assertEquals(1, eventService.getEventById(event.getId()).getCurrentParticipants());
+    }
+
+    private Participant newParticipant() {
+        Participant participant = new Participant();
+        participant.setFirstName("Cache");
+        participant.setLastName("Test");
+        participant.setEmail("cache-" + UUID.randomUUID() + "@example.com");
+        return participantRepository.save(participant);
+    }
+}
@@ -0,0 +1,122 @@
+package com.example.demo.service;
+
+import com.example.demo.model.Event;
+import com.example.demo.model.Participant;
+import com.example.demo.model.Registration;
+import com.example.demo.model.Session;
+import com.example.demo.repository.EventRepository;
+import com.example.demo.repository.ParticipantRepository;
+import com.example.demo.repository.RegistrationRepository;
+import com.example.demo.repository.SessionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+// Освободившиеся и добавленные места отдаются листу ожидания в той же транзакции:
+// статус регистрации, счетчик в БД и очередь в памяти остаются согласованными
+@SpringBootTest
+class WaitlistServiceTests {
+
+    @Autowired
+    private RegistrationService registrationService;
+    @Autowired
+    private SessionService sessionService;
+    @Autowired
+    private WaitlistService waitlistService;
+    @Autowired
+    private SeatInventoryService seatInventoryService;
+    @Autowired
+    private EventRepository eventRepository;
+    @Autowired
+    private SessionRepository sessionRepository;
+    @Autowired
+    private ParticipantRepository participantRepository;
+    @Autowired
+    private RegistrationRepository registrationRepository;
+
+    private Session session;
+    private Registration confirmed;
+    private Registration waitlisted;
+
+    @BeforeEach
+    void fillSessionAndWaitlist() {
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        Event event = eventRepository.save(Event.builder()
+                .name("Waitlist event " + UUID.randomUUID())
+                .location("Online")
+                .startDate(start)
+                .endDate(start.plusDays(1))
+                .build());
+        session = new Session();
+        session.setTitle("Waitlist session");
+        session.setStartTime(start);
+        session.setEndTime(start.plusHours(1));
+        session.setMaxCapacity(1);
+        session.setEvent(event);
+        sessionRepository.save(session);
+
+        confirmed = registrationService.registerForSession(newParticipant().getId(), session.getId());
+        waitlisted = registrationService.joinWaitlist(newParticipant().getId(), session.getId(), 0);
+        assertEquals(Registration.RegistrationStatus.WAITLISTED, waitlisted.getStatus());
+    }
+
+    @Test
+    void cancellationPromotesHead() {
+        registrationService.cancelRegistration(confirmed.getId());
+
+        assertPromoted(waitlisted, 1);
+        assertFalse(seatInventoryService.hasFreeSeat(session.getId()));
+    }
+
+    @Test
+    void capacityIncreasePromotesHead() {
+        sessionService.updateSessionCapacity(session.getId(), 2);
+
+        assertPromoted(waitlisted, 2);
+    }
+
+    @Test
+    void sessionUpdateWithLargerCapacityPromotesHead() {
+        Session details = new Session();
+        details.setMaxCapacity(2);
+
+        sessionService.updateSession(session.getId(), details);
+
+        assertPromoted(waitlisted, 2);
+    }
+
+    @Test
+    void higherPriorityIsPromotedFirst() {
+        Registration urgent = registrationService.joinWaitlist(newParticipant().getId(), session.getId(), 5);
+        assertEquals(1, waitlistService.getPosition(urgent.getId()));
+        assertEquals(2, waitlistService.getPosition(waitlisted.getId()));
+
+        registrationService.cancelRegistration(confirmed.getId());
+
+        assertPromoted(urgent, 1);
+        assertEquals(1, waitlistService.getPosition(waitlisted.getId()));
+    }
+
+    private void assertPromoted(Registration registration, int participants) {
+        assertEquals(Registration.RegistrationStatus.CONFIRMED,
+                registrationRepository.findById(registration.getId()).orElseThrow().getStatus());
+        assertEquals(participants, sessionRepository.findById(session.getId()).orElseThrow().getCurrentParticipants());
+        assertNull(waitlistService.getPosition(registration.getId()));
+    }
+
+    private Participant newParticipant() {
+        Participant participant = new Participant();
+        participant.setFirstName("Waitlist");
+        participant.setLastName("Test");
+        participant.setEmail("waitlist-" + UUID.randomUUID() + "@example.com");
+        return participantRepository.save(participant);
+    }
+}